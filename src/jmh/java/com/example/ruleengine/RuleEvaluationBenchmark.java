@@ -0,0 +1,98 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of evaluating rules of varying depth against data maps of varying size
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEvaluationBenchmark {
+
+    private static final int RECORDS = 64;
+
+    // Depth of the balanced rule tree
+    @Param({ "2", "6", "10" })
+    int depth;
+
+    // Number of entries in each data map
+    @Param({ "16", "256" })
+    int dataSize;
+
+    private Node tree;
+    private CompiledRule compiled;
+    private CompiledRule generated;
+    private SchemaRule bound;
+    private RecordBatch batch;
+    private Map<String, Object>[] records;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RuleGenerator generator = new RuleGenerator(42, 16);
+        tree = generator.tree(depth);
+        compiled = RuleEngine.compile(tree);
+        generated = MethodHandleCompiler.generate(compiled);
+        records = new Map[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = generator.data(dataSize);
+        }
+        RecordSchema schema = RecordSchema.forRule(compiled);
+        bound = RuleEngine.compile(compiled, schema);
+        batch = RecordBatch.of(schema, List.of(records));
+    }
+
+    // Cycle through the records so branch outcomes vary between invocations
+    private Map<String, Object> nextRecord() {
+        next = (next + 1) & (RECORDS - 1);
+        return records[next];
+    }
+
+    // Compile-and-evaluate path used for one-off rules
+    @Benchmark
+    public boolean evaluateRuleTree() {
+        return RuleEngine.evaluateRule(tree, nextRecord());
+    }
+
+    // Evaluation of an already compiled rule, as used for registered rules and batches
+    @Benchmark
+    public boolean evaluateCompiledRule() {
+        return RuleEngine.evaluateRule(compiled, nextRecord());
+    }
+
+    // Second-tier MethodHandle form that hot registered rules are promoted to
+    @Benchmark
+    public boolean evaluateGeneratedRule() {
+        return generated.evaluate(nextRecord());
+    }
+
+    // Slot-resolved rule reading the same records from a columnar batch
+    @Benchmark
+    public boolean evaluateSchemaRule() {
+        next = (next + 1) & (RECORDS - 1);
+        return bound.evaluate(batch, next);
+    }
+
+    // All records of the batch in one bitmask pass; divide by the record count to compare per record
+    @Benchmark
+    public ColumnarEvaluator.Result evaluateColumnarBatch() {
+        return ColumnarEvaluator.evaluate(bound, batch);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// RuleGenerator.java
+// Deterministic generator of rules and data maps for the benchmarks. Every operand tests one of
+// the first fields of the generated data ("f0", "f1", ...), so evaluation always succeeds.
+final class RuleGenerator {
+
+    private static final String[] NUMERIC_OPERATORS = { ">", "<", "=" };
+
+    private final Random random;
+    private final int fieldCount;
+
+    RuleGenerator(long seed, int fieldCount) {
+        this.random = new Random(seed);
+        this.fieldCount = fieldCount;
+    }
+
+    // A single operand such as "f3 > 42" or "f1 = 'v7'"
+    String operand() {
+        int field = random.nextInt(fieldCount);
+        if (field % 4 == 3) {
+            return "f" + field + " = 'v" + random.nextInt(10) + "'";
+        }
+        return "f" + field + " " + NUMERIC_OPERATORS[random.nextInt(NUMERIC_OPERATORS.length)] + " " + random.nextInt(100);
+    }
+
+    // A flat rule string of the given number of operands joined by AND/OR
+    String ruleString(int width) {
+        StringBuilder rule = new StringBuilder(operand());
+        for (int i = 1; i < width; i++) {
+            rule.append(random.nextBoolean() ? " AND " : " OR ").append(operand());
+        }
+        return rule.toString();
+    }
+
+    // JSON-like structure accepted by RuleEngine.createRuleFromJson: a list of width binary rules
+    Map<String, Object> ruleJson(int width) {
+        List<Map<String, Object>> rules = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            rules.add(Map.of(
+                    "operator", random.nextBoolean() ? "AND" : "OR",
+                    "left", Map.of("operand", operand()),
+                    "right", Map.of("operand", operand())));
+        }
+        return Map.of("rules", rules);
+    }
+
+    // Balanced tree of the given depth (depth 1 is a single operand)
+    Node tree(int depth) {
+        if (depth <= 1) {
+            return new Node("operand", operand());
+        }
+        return RuleEngine.combineRules(tree(depth - 1), tree(depth - 1), random.nextBoolean() ? "AND" : "OR");
+    }
+
+    // Independent single-operand rules, as combined by RuleEngine.combineRules(List, ...)
+    List<Node> operands(int width) {
+        List<Node> nodes = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            nodes.add(new Node("operand", operand()));
+        }
+        return nodes;
+    }
+
+    // Data map holding the rule fields plus filler fields up to the requested size
+    Map<String, Object> data(int size) {
+        Map<String, Object> data = new HashMap<>();
+        for (int field = 0; field < Math.max(size, fieldCount); field++) {
+            data.put("f" + field, field % 4 == 3 ? "v" + random.nextInt(10) : random.nextInt(100));
+        }
+        return data;
+    }
+}
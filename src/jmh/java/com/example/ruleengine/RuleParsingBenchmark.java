@@ -0,0 +1,83 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of turning rule text and JSON into Node trees, combining them and compiling them. Parsing and
+// combining depend on the operand count only and compiling on the tree depth only, so each keeps its
+// parameter in its own state and no benchmark runs once per value of a parameter it ignores.
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Operands {
+
+        // Number of operands in rule strings, JSON rule lists and combined rule lists
+        @Param({ "4", "32", "256" })
+        int width;
+
+        private String ruleString;
+        private Map<String, Object> ruleJson;
+        private List<Node> operands;
+
+        @Setup
+        public void setUp() {
+            RuleGenerator generator = new RuleGenerator(42, 16);
+            ruleString = generator.ruleString(width);
+            ruleJson = generator.ruleJson(width);
+            operands = generator.operands(width);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Tree {
+
+        // Depth of the balanced tree that is compiled
+        @Param({ "2", "6", "10" })
+        int depth;
+
+        private Node tree;
+
+        @Setup
+        public void setUp() {
+            tree = new RuleGenerator(42, 16).tree(depth);
+        }
+    }
+
+    @Benchmark
+    public Node createRule(Operands state) {
+        return RuleEngine.createRule(state.ruleString);
+    }
+
+    @Benchmark
+    public Node createRuleFromJson(Operands state) {
+        return RuleEngine.createRuleFromJson(state.ruleJson);
+    }
+
+    @Benchmark
+    public Node combineRules(Operands state) {
+        return RuleEngine.combineRules(state.operands, "AND");
+    }
+
+    @Benchmark
+    public CompiledRule compile(Tree state) {
+        return RuleEngine.compile(state.tree);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ruleengine;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of re-scoring a record against many rules after one numeric field changes: every rule evaluated
+// again versus an EvaluationSession update
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionUpdateBenchmark {
+
+    // Number of rules in the session
+    @Param({ "100", "10000" })
+    int ruleCount;
+
+    private Map<String, CompiledRule> rules;
+    private Map<String, Object> data;
+    private EvaluationSession session;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RuleGenerator generator = new RuleGenerator(42, 64);
+        rules = new LinkedHashMap<>();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.put(String.valueOf(i), RuleEngine.compile(RuleEngine.createRule(generator.ruleString(4))));
+        }
+        data = generator.data(64);
+        session = new EvaluationSession(rules, data);
+    }
+
+    // Next value of f0, which about one condition in 64 tests
+    private Integer nextValue() {
+        next = (next + 7) % 100;
+        return next;
+    }
+
+    @Benchmark
+    public int evaluateEveryRule() {
+        data.put("f0", nextValue());
+        int matches = 0;
+        for (CompiledRule rule : rules.values()) {
+            if (rule.evaluate(data)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<EvaluationSession.Change> updateSession() {
+        return session.update(Map.of("f0", nextValue()));
+    }
+}
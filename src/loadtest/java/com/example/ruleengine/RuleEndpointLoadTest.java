@@ -0,0 +1,223 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+// RuleEndpointLoadTest.java
+// End-to-end load on a random port: evaluate_rule, create_rule and combine_rules in turn, each at a fixed
+// request rate, first through RuleController (/api/rules) and then through AsyncRuleController
+// (/api/async/rules), so the two appear side by side in the report. Latency is measured from the time a request was scheduled to
+// be sent rather than from when it was sent, so a stalled server is charged for the requests it held
+// back (no coordinated omission). Run with
+//   mvn -Ploadtest test -Dloadtest.rate=2000 -Dloadtest.concurrency=64 -Dloadtest.seconds=30
+// The async endpoints pull ahead once requests outnumber Tomcat threads; add e.g.
+// -Dserver.tomcat.threads.max=16 with a concurrency above that to see the difference.
+// Settings (system properties, defaults in brackets):
+//   loadtest.rate [500]          requests per second per endpoint
+//   loadtest.concurrency [32]    connections, each sending an equal share of the rate
+//   loadtest.seconds [20]        measured duration per endpoint, after loadtest.warmup-seconds [5]
+//   loadtest.rule-depth [4]      depth of the balanced rule tree; 2^(depth-1) conditions
+//   loadtest.data-fields [16]    fields in each evaluated record, at least one per rule field
+//   loadtest.slo.p99-ms [100], loadtest.slo.p999-ms [250]   latency SLOs; 0 disables a check
+// The report (throughput and p50/p99/p99.9/max per endpoint) goes to standard output and
+// target/loadtest/report.txt, with full percentile distributions in target/loadtest/<endpoint>.hgrm
+// (async endpoints as async-<endpoint>.hgrm).
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest", "ruleengine.warmup.rules=0" })
+class RuleEndpointLoadTest {
+
+    private static final long HIGHEST_MICROS = 60_000_000L;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final int rate = Integer.getInteger("loadtest.rate", 500);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int seconds = Integer.getInteger("loadtest.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+    private final int ruleDepth = Integer.getInteger("loadtest.rule-depth", 4);
+    private final int dataFields = Integer.getInteger("loadtest.data-fields", 16);
+    private final long p99Slo = Long.getLong("loadtest.slo.p99-ms", 100);
+    private final long p999Slo = Long.getLong("loadtest.slo.p999-ms", 250);
+
+    // Outcome of driving one endpoint
+    private record Result(String endpoint, Histogram corrected, Histogram service, long failures, double throughput) {
+        long millis(double percentile) {
+            return corrected.getValueAtPercentile(percentile) / 1000;
+        }
+    }
+
+    @Test
+    void testEndpointsMeetLatencySlos() throws Exception {
+        // Arrange
+        Random random = new Random(42);
+        List<String> rules = new ArrayList<>();
+        List<Map<String, Object>> structures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            rules.add(rule(random, ruleDepth));
+            // evaluate_rule takes a JSON structure, nested under "rules" twice as createRuleFromJson reads it;
+            // its operands may be whole expressions, which are compiled as subtrees
+            structures.add(Map.of("operator", random.nextBoolean() ? "AND" : "OR",
+                    "left", Map.of("operand", rule(random, Math.max(1, ruleDepth - 1))),
+                    "right", Map.of("operand", rule(random, Math.max(1, ruleDepth - 1)))));
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int field = 0; field < Math.max(dataFields, 8); field++) {
+            data.put("f" + field, field % 4 == 3 ? "v" + random.nextInt(10) : random.nextInt(100));
+        }
+        Map<String, List<String>> bodies = new LinkedHashMap<>();
+        bodies.put("evaluate_rule", bodies(structures, structure -> Map.of("rules", Map.of("rules", structure), "data", data)));
+        bodies.put("create_rule", bodies(rules, rule -> Map.of("rule", rule)));
+        bodies.put("combine_rules", bodies(rules, rule -> Map.of("rule1", rule, "rule2", rules.get(0), "operator", "OR")));
+
+        // Act
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(concurrency)).build();
+        List<Result> results = new ArrayList<>();
+        for (String controller : List.of("", "async/")) {
+            for (Map.Entry<String, List<String>> endpoint : bodies.entrySet()) {
+                String name = controller + endpoint.getKey();
+                URI uri = URI.create("http://localhost:" + port + "/api/" + controller + "rules/" + endpoint.getKey());
+                run(http, name, uri, endpoint.getValue(), warmupSeconds);
+                results.add(run(http, name, uri, endpoint.getValue(), seconds));
+            }
+        }
+
+        // Assert
+        String report = report(results);
+        System.out.print(report);
+        for (Result result : results) {
+            assertEquals(0, result.failures(), result.endpoint() + ": " + result.failures() + " failed requests");
+            assertTrue(result.throughput() >= rate * 0.9, result.endpoint() + ": could not sustain " + rate + " req/s");
+            assertTrue(p99Slo <= 0 || result.millis(99.0) <= p99Slo, result.endpoint() + ": p99 over " + p99Slo + "ms");
+            assertTrue(p999Slo <= 0 || result.millis(99.9) <= p999Slo, result.endpoint() + ": p99.9 over " + p999Slo + "ms");
+        }
+    }
+
+    // Send requests at the configured rate for the given time, cycling through the bodies
+    private Result run(HttpClient http, String endpoint, URI uri, List<String> bodies, int runSeconds) throws Exception {
+        long interval = 1_000_000_000L * concurrency / rate;
+        long start = System.nanoTime();
+        long end = start + runSeconds * 1_000_000_000L;
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int client = 0; client < concurrency; client++) {
+            long offset = interval * client / concurrency;  // Spread the clients' schedules evenly
+            int first = client;
+            futures.add(clients.submit(() -> {
+                Histogram corrected = new Histogram(HIGHEST_MICROS, 3);
+                Histogram service = new Histogram(HIGHEST_MICROS, 3);
+                long failures = 0;
+                int next = first;
+                for (long scheduled = start + offset; scheduled < end; scheduled += interval) {
+                    // parkNanos may return early; sending before the scheduled time would record a negative latency
+                    for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/json")
+                            .timeout(Duration.ofSeconds(30))
+                            .POST(HttpRequest.BodyPublishers.ofString(bodies.get(next++ % bodies.size())))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            failures++;
+                        }
+                    } catch (IOException e) {
+                        failures++;
+                    }
+                    long done = System.nanoTime();
+                    corrected.recordValue(Math.min(HIGHEST_MICROS, (done - scheduled) / 1000));
+                    service.recordValue(Math.min(HIGHEST_MICROS, (done - sent) / 1000));
+                }
+                return new Result(endpoint, corrected, service, failures, 0);
+            }));
+        }
+
+        Histogram corrected = new Histogram(HIGHEST_MICROS, 3);
+        Histogram service = new Histogram(HIGHEST_MICROS, 3);
+        long failures = 0;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            corrected.add(result.corrected());
+            service.add(result.service());
+            failures += result.failures();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        clients.shutdown();
+        return new Result(endpoint, corrected, service, failures, corrected.getTotalCount() / elapsed);
+    }
+
+    // Summary table plus one percentile distribution file per endpoint
+    private String report(List<Result> results) throws IOException {
+        Path directory = Files.createDirectories(Path.of("target", "loadtest"));
+        StringBuilder report = new StringBuilder(String.format(
+                "Load test: %d req/s per endpoint, %d connections, %ds, rule depth %d, %d data fields%n",
+                rate, concurrency, seconds, ruleDepth, dataFields));
+        report.append(String.format("%-20s %10s %8s %8s %8s %8s %8s %12s%n",
+                "endpoint", "req/s", "failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms"));
+        for (Result result : results) {
+            report.append(String.format("%-20s %10.0f %8d %8.2f %8.2f %8.2f %8.2f %12.2f%n", result.endpoint(),
+                    result.throughput(), result.failures(), result.corrected().getValueAtPercentile(50.0) / 1000.0,
+                    result.corrected().getValueAtPercentile(99.0) / 1000.0,
+                    result.corrected().getValueAtPercentile(99.9) / 1000.0, result.corrected().getMaxValue() / 1000.0,
+                    result.service().getValueAtPercentile(99.0) / 1000.0));
+            ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+            result.corrected().outputPercentileDistribution(new PrintStream(distribution, true, StandardCharsets.UTF_8), 1000.0);
+            Files.write(directory.resolve(result.endpoint().replace('/', '-') + ".hgrm"), distribution.toByteArray());
+        }
+        Files.writeString(directory.resolve("report.txt"), report);
+        return report.toString();
+    }
+
+    private <T> List<String> bodies(List<T> rules, Function<T, Map<String, Object>> body) throws IOException {
+        List<String> bodies = new ArrayList<>(rules.size());
+        for (T rule : rules) {
+            bodies.add(objectMapper.writeValueAsString(body.apply(rule)));
+        }
+        return bodies;
+    }
+
+    // Balanced rule of the given depth over fields f0..f7, e.g. "(f0 > 42 AND f3 = 'v7') OR ..."
+    private static String rule(Random random, int depth) {
+        if (depth <= 1) {
+            int field = random.nextInt(8);
+            return field % 4 == 3 ? "f" + field + " = 'v" + random.nextInt(10) + "'"
+                    : "f" + field + " " + (random.nextBoolean() ? ">" : "<") + " " + random.nextInt(100);
+        }
+        return "(" + rule(random, depth - 1) + (random.nextBoolean() ? " AND " : " OR ") + rule(random, depth - 1) + ")";
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+// RuleSetReloadLoadTest.java
+// Evaluations against RuleSetManager while whole rule sets are reloaded back to back. Readers take the
+// current snapshot and evaluate one of its rules in a tight loop; every evaluation of the run is
+// recorded. A reader that waited for a reload to compile would wait for most of it, so p99.9 must stay
+// below the slowest reload. Run with
+//   mvn -Ploadtest test -Dtest=RuleSetReloadLoadTest
+// Settings (system properties, defaults in brackets):
+//   loadtest.reload.rules [2000]     rules per rule set
+//   loadtest.reload.versions [20]    rule sets published, one after the other
+//   loadtest.reload.readers [4]      threads evaluating during the reloads
+// The summary goes to standard output and target/loadtest/reload-report.txt, with the full percentile
+// distribution in target/loadtest/reload.hgrm.
+class RuleSetReloadLoadTest {
+
+    private static final long HIGHEST_NANOS = 60_000_000_000L;
+
+    private final int ruleCount = Integer.getInteger("loadtest.reload.rules", 2000);
+    private final int versions = Integer.getInteger("loadtest.reload.versions", 20);
+    private final int readerCount = Integer.getInteger("loadtest.reload.readers", 4);
+
+    @Test
+    void testEvaluationsDoNotWaitForReloads() throws Exception {
+        // Arrange
+        RuleSetManager manager = new RuleSetManager(new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000),
+                new ObjectMapper(), "classpath:rules.json");
+        manager.publish("loadtest", generation(1));
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(readerCount);
+        List<Future<Histogram>> results = new ArrayList<>();
+        long slowestReload = 0;
+        try {
+            for (int reader = 0; reader < readerCount; reader++) {
+                results.add(readers.submit(() -> {
+                    Histogram histogram = new Histogram(HIGHEST_NANOS, 3);
+                    int count = 0;
+                    while (reloading.get()) {
+                        long start = System.nanoTime();
+                        RuleSet ruleSet = manager.current();
+                        boolean result = ruleSet.getCompiled(String.valueOf(count++ % ruleCount)).orElseThrow()
+                                .evaluate(Map.of("generation", (int) ruleSet.getVersion()));
+                        histogram.recordValue(Math.min(HIGHEST_NANOS, System.nanoTime() - start));
+                        if (!result) {
+                            throw new AssertionError("Reader saw a partly updated rule set " + ruleSet.getVersion());
+                        }
+                    }
+                    return histogram;
+                }));
+            }
+
+            // Act
+            for (int version = 2; version <= versions; version++) {
+                List<RegisteredRule> rules = generation(version);
+                long start = System.nanoTime();
+                manager.publish("loadtest", rules);
+                slowestReload = Math.max(slowestReload, System.nanoTime() - start);
+            }
+        } finally {
+            reloading.set(false);
+            readers.shutdown();
+        }
+        Histogram histogram = new Histogram(HIGHEST_NANOS, 3);
+        for (Future<Histogram> result : results) {
+            histogram.add(result.get());
+        }
+        assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        long p999 = histogram.getValueAtPercentile(99.9);
+        System.out.print(report(histogram, slowestReload));
+        assertEquals(versions, manager.current().getVersion());
+        assertTrue(p999 < slowestReload, "p99.9 " + p999 + " ns, slowest reload " + slowestReload + " ns");
+    }
+
+    // Summary line plus the percentile distribution file
+    private String report(Histogram histogram, long slowestReload) throws IOException {
+        Path directory = Files.createDirectories(Path.of("target", "loadtest"));
+        String report = String.format("Rule set reloads: %d rules x %d versions, %d readers%n"
+                        + "evaluations %d, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns, slowest reload %d ns%n",
+                ruleCount, versions, readerCount, histogram.getTotalCount(), histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9), histogram.getMaxValue(),
+                slowestReload);
+        ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+        histogram.outputPercentileDistribution(new PrintStream(distribution, true, StandardCharsets.UTF_8), 1.0);
+        Files.write(directory.resolve("reload.hgrm"), distribution.toByteArray());
+        Files.writeString(directory.resolve("reload-report.txt"), report);
+        return report;
+    }
+
+    // Every rule of version v tests "generation = v", so a reader mixing two sets would see a false result
+    private List<RegisteredRule> generation(int version) {
+        List<RegisteredRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new RegisteredRule(String.valueOf(i), version,
+                    RuleEngine.createRule("generation = " + version + " AND generation > " + (i % 50 - 100))));
+        }
+        return rules;
+    }
+}
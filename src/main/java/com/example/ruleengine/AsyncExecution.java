@@ -0,0 +1,93 @@
+package com.example.ruleengine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// AsyncExecution.java
+// Runs the work of asynchronous requests off the servlet container's threads. With
+// ruleengine.async.mode=virtual every task gets its own virtual thread (Java 21 and later; older
+// runtimes fall back to platform threads); with "platform" tasks share a fixed pool. At most
+// ruleengine.async.max-in-flight tasks run or wait at once: submit rejects tasks over the limit so
+// callers can shed load, submitWaiting blocks until a permit is free so streams slow their reader down.
+@Component
+public class AsyncExecution {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncExecution.class);
+
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final boolean virtual;
+
+    public AsyncExecution(@Value("${ruleengine.async.mode:platform}") String mode,
+                          @Value("${ruleengine.async.threads:0}") int threads,
+                          @Value("${ruleengine.async.max-in-flight:1024}") int maxInFlight) {
+        if (!"platform".equals(mode) && !"virtual".equals(mode)) {
+            throw new IllegalArgumentException("Unknown async mode: " + mode);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Async in-flight limit must be positive");
+        }
+        ExecutorService virtualExecutor = "virtual".equals(mode) ? virtualThreadExecutor() : null;
+        if ("virtual".equals(mode) && virtualExecutor == null) {
+            log.warn("Virtual threads need Java 21 or later; async requests use platform threads");
+        }
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor
+                : Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Run the task asynchronously, or fail the returned future with RejectedExecutionException
+    // if the in-flight limit is reached
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many requests in flight"));
+        }
+        return run(task);
+    }
+
+    // Run the task asynchronously, waiting for a free slot first
+    public <T> CompletableFuture<T> submitWaiting(Supplier<T> task) throws InterruptedException {
+        inFlight.acquire();
+        return run(task);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor).whenComplete((result, error) -> inFlight.release());
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor, looked up reflectively so the code still builds for Java 17;
+    // null on runtimes without virtual threads
+    static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.ruleengine.ParallelEvaluator.Outcome;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// AsyncRuleController.java
+// Asynchronous variants of the rule endpoints. Each request is handed to AsyncExecution and the servlet
+// thread is released at once, so the number of concurrent requests is bounded by the in-flight limit
+// rather than by the container's thread pool; requests over the limit get 503. Responses are the same
+// as RuleController's. evaluate_stream takes an NDJSON stream of evaluation requests, e.g.
+//   {"rule":"age > 30","data":{"age":35}}
+//   {"rules":{...},"data":{...}}
+// and streams one result line per request back in input order, reading ahead at most
+// ruleengine.async.stream-window requests.
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/async/rules")
+public class AsyncRuleController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_STREAM_RULES = 256;
+    private static final TypeReference<Map<String, Object>> REQUEST = new TypeReference<>() {
+    };
+
+    private final RuleController ruleController;
+    private final AsyncExecution asyncExecution;
+    private final ObjectMapper objectMapper;
+    private final RuleMetrics ruleMetrics;
+    private final int streamWindow;
+
+    public AsyncRuleController(RuleController ruleController, AsyncExecution asyncExecution, ObjectMapper objectMapper,
+                               RuleMetrics ruleMetrics, @Value("${ruleengine.async.stream-window:64}") int streamWindow) {
+        if (streamWindow <= 0) {
+            throw new IllegalArgumentException("Stream window must be positive");
+        }
+        this.ruleController = ruleController;
+        this.asyncExecution = asyncExecution;
+        this.objectMapper = objectMapper;
+        this.ruleMetrics = ruleMetrics;
+        this.streamWindow = streamWindow;
+    }
+
+    @PostMapping("/create_rule")
+    public CompletableFuture<ResponseEntity<Node>> createRule(@RequestBody Map<String, String> payload) {
+        return submit(() -> ruleController.createRule(payload));
+    }
+
+    @PostMapping("/evaluate_rule")
+    public CompletableFuture<ResponseEntity<Object>> evaluateRule(@RequestBody Map<String, Object> payload,
+                                                                  @RequestParam(defaultValue = "false") boolean explain) {
+        return submit(() -> ruleController.evaluateRule(payload, explain));
+    }
+
+    @PostMapping("/combine_rules")
+    public CompletableFuture<ResponseEntity<Node>> combineRules(@RequestBody Map<String, Object> payload) {
+        return submit(() -> ruleController.combineRules(payload));
+    }
+
+    // Endpoint to evaluate a stream of independent rule/data requests, see the class comment
+    @PostMapping(value = "/evaluate_stream", consumes = NDJSON, produces = NDJSON)
+    public StreamingResponseBody evaluateStream(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        return out -> evaluateStream(in, out);
+    }
+
+    // Read requests, keep up to streamWindow of them evaluating, and write results in input order.
+    // Reading pauses while the window is full, so a slow client or a busy executor slows the sender down.
+    void evaluateStream(InputStream in, OutputStream out) throws IOException {
+        Map<Node, CompiledRule> compiled = new ConcurrentHashMap<>();
+        Deque<CompletableFuture<Outcome>> pending = new ArrayDeque<>();
+        String malformed = null;
+        long index = 0;
+
+        try (JsonParser parser = objectMapper.createParser(in);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            try {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (pending.size() >= streamWindow) {
+                        index = writeOutcome(generator, index, pending.removeFirst(), pending);
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        pending.addLast(CompletableFuture.completedFuture(Outcome.failed("Request must be a JSON object")));
+                        continue;
+                    }
+                    Map<String, Object> evaluation = objectMapper.readValue(parser, REQUEST);
+                    pending.addLast(asyncExecution.submitWaiting(() -> evaluate(evaluation, compiled)));
+                }
+            } catch (JsonProcessingException e) {
+                // Malformed input: report it after the requests read so far, which stay valid
+                malformed = "Malformed stream input: " + e.getOriginalMessage();
+            }
+
+            while (!pending.isEmpty()) {
+                index = writeOutcome(generator, index, pending.removeFirst(), pending);
+            }
+            if (malformed != null) {
+                writeLine(generator, index, Outcome.failed(malformed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Stream evaluation interrupted");
+        }
+    }
+
+    // Evaluate one stream request; rules repeated across the stream are compiled once
+    private Outcome evaluate(Map<String, Object> evaluation, Map<Node, CompiledRule> compiled) {
+        Map<String, Object> data = RuleEngine.toData(evaluation.get("data"));
+        if (data == null) {
+            return Outcome.failed("Missing required field: 'data'");
+        }
+        try {
+            Node rule = ruleMetrics.parse("payload", () -> RuleEngine.createRuleFromPayload(evaluation));
+            if (compiled.size() >= MAX_STREAM_RULES) {
+                compiled.clear();
+            }
+            CompiledRule compiledRule = compiled.computeIfAbsent(rule, ruleMetrics::compile);
+            return Outcome.of(ruleMetrics.evaluate(RuleMetrics.AD_HOC_RULE, () -> compiledRule.evaluate(data)));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            ruleMetrics.error("evaluate_stream", e);
+            return Outcome.failed(e.getMessage());
+        }
+    }
+
+    // Hand the call to the executor; when the in-flight limit is reached answer 503 instead of queueing
+    private <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> call) {
+        return asyncExecution.submit(call).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    // Wait for the oldest outstanding result and write it; flush once nothing further is ready
+    private static long writeOutcome(JsonGenerator generator, long index, CompletableFuture<Outcome> next,
+                                     Deque<CompletableFuture<Outcome>> pending) throws IOException {
+        Outcome outcome;
+        try {
+            outcome = next.join();
+        } catch (CompletionException e) {
+            outcome = Outcome.failed("Evaluation failed: " + e.getCause().getMessage());
+        }
+        writeLine(generator, index, outcome);
+        if (pending.isEmpty() || !pending.peekFirst().isDone()) {
+            generator.flush();
+        }
+        return index + 1;
+    }
+
+    private static void writeLine(JsonGenerator generator, long index, Outcome outcome) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        if (outcome.isError()) {
+            generator.writeStringField("error", outcome.error());
+        } else {
+            generator.writeBooleanField("result", outcome.result());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
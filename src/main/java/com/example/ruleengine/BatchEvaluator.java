@@ -0,0 +1,187 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.ruleengine.ParallelEvaluator.Outcome;
+
+// BatchEvaluator.java
+// Evaluates one compiled rule against a stream of data records. Rules and records are read straight
+// from parser tokens by JsonStreamReader, never as intermediate maps: each record goes directly into a
+// columnar RecordBatch chunk holding only the fields the rule reads, and each chunk is evaluated with
+// bitmasks. At most the ParallelEvaluator's window of chunks is held per request, and chunks are reused
+// once their results are written, so memory stays bounded however large the body is.
+// Results are written as NDJSON lines, in input order:
+//   {"index":0,"result":true}
+//   {"index":1,"error":"Unsupported data type for field: age"}
+@Component
+public class BatchEvaluator {
+
+    // Chunk submitted for evaluation; it is reused once its outcomes have been written
+    private record InFlight(Future<Outcome[]> outcomes, RecordBatch chunk) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ParallelEvaluator parallelEvaluator;
+
+    public BatchEvaluator(ObjectMapper objectMapper, ParallelEvaluator parallelEvaluator) {
+        this.objectMapper = objectMapper;
+        this.parallelEvaluator = parallelEvaluator;
+    }
+
+    // Read the rule that precedes the records and leave the parser positioned at the records.
+    // JSON bodies look like {"rules": {...}, "data": [...]} (or "rule": "age > 30"); the rule must come
+    // before "data". NDJSON bodies start with one line holding the rule object, followed by one record per line.
+    public CompiledRule readRule(JsonParser parser, boolean ndjson) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Batch payload must start with a JSON object");
+        }
+        if (ndjson) {
+            Node rule = JsonStreamReader.readPayload(parser);
+            parser.clearCurrentToken();  // The header is consumed; records start at the next token
+            return RuleEngine.compile(rule);
+        }
+
+        Node rule = null;
+        boolean hasRule = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "rule" -> {
+                    if (value != JsonToken.VALUE_STRING) {
+                        throw new IllegalArgumentException("'rule' must be a string");
+                    }
+                    rule = RuleEngine.createRule(parser.getText());
+                    hasRule = true;
+                }
+                case "rules" -> {
+                    rule = JsonStreamReader.readRules(parser);
+                    hasRule = true;
+                }
+                case "data" -> {
+                    if (!hasRule) {
+                        throw new IllegalArgumentException("'rules' must precede 'data' in a batch payload");
+                    }
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("'data' must be an array of objects");
+                    }
+                    return RuleEngine.compile(rule);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        throw new IllegalArgumentException("Missing required field: 'data'");
+    }
+
+    // Evaluate every record the parser yields. If the parser is positioned on START_ARRAY the
+    // elements of that array are read; otherwise root-level values are read until end of input,
+    // starting with the current token if it has not been consumed yet. Full chunks are handed to the
+    // ParallelEvaluator while reading continues; the trailing partial chunk runs on the calling thread.
+    // Returns the number of records processed.
+    public long evaluate(CompiledRule compiledRule, JsonParser parser, OutputStream out) throws IOException {
+        JsonToken current = parser.currentToken();
+        boolean array = current == JsonToken.START_ARRAY;
+        int chunkSize = parallelEvaluator.getChunkSize();
+        CompiledRule optimized = RuleOptimizer.optimize(compiledRule);
+        RecordSchema schema = RecordSchema.forRule(optimized);
+        SchemaRule rule = RuleEngine.compile(optimized, schema);
+        JsonStreamReader reader = new JsonStreamReader(schema);
+        Deque<InFlight> pending = new ArrayDeque<>();
+        Deque<RecordBatch> spare = new ArrayDeque<>();
+        RecordBatch chunk = new RecordBatch(schema, chunkSize);
+        String malformed = null;
+        long index = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            try {
+                JsonToken first = array || current == null ? parser.nextToken() : current;
+                for (JsonToken token = first; token != null; token = parser.nextToken()) {
+                    if (array && token == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    readRecord(parser, token, reader, chunk);
+                    if (chunk.size() == chunkSize) {
+                        if (pending.size() >= parallelEvaluator.getWindowPerBatch()) {
+                            index = writeOutcomes(generator, index, pending.removeFirst(), spare);
+                        }
+                        pending.addLast(new InFlight(parallelEvaluator.submit(rule, chunk), chunk));
+                        chunk = spare.isEmpty() ? new RecordBatch(schema, chunkSize) : spare.pop();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Malformed input: report it after the records read so far, which stay valid
+                malformed = "Malformed batch input: " + e.getOriginalMessage();
+            }
+
+            while (!pending.isEmpty()) {
+                index = writeOutcomes(generator, index, pending.removeFirst(), spare);
+            }
+            index = writeOutcomes(generator, index, ParallelEvaluator.evaluateChunk(rule, chunk));
+            if (malformed != null) {
+                writeLine(generator, index, null, malformed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch evaluation interrupted");
+        }
+        return index;
+    }
+
+    // Read one record into the chunk; anything other than an object is kept as an invalid row
+    // and reported as a per-record error
+    private static void readRecord(JsonParser parser, JsonToken token, JsonStreamReader reader, RecordBatch chunk)
+            throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            chunk.addInvalidRow();
+            return;
+        }
+        reader.readRecord(parser, chunk);
+    }
+
+    // Wait for a submitted chunk, write its results and keep the chunk for reuse
+    private static long writeOutcomes(JsonGenerator generator, long index, InFlight inFlight, Deque<RecordBatch> spare)
+            throws IOException, InterruptedException {
+        Outcome[] outcomes = ParallelEvaluator.await(inFlight.outcomes());
+        inFlight.chunk().clear();
+        spare.push(inFlight.chunk());
+        return writeOutcomes(generator, index, outcomes);
+    }
+
+    // Write the result lines of one chunk and flush them to the client
+    private static long writeOutcomes(JsonGenerator generator, long index, Outcome[] outcomes) throws IOException {
+        for (Outcome outcome : outcomes) {
+            writeLine(generator, index++, outcome.isError() ? null : outcome.result(), outcome.error());
+        }
+        generator.flush();
+        return index;
+    }
+
+    private static void writeLine(JsonGenerator generator, long index, Boolean result, String error) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        if (error != null) {
+            generator.writeStringField("error", error);
+        } else {
+            generator.writeBooleanField("result", result);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
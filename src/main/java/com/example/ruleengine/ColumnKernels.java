@@ -0,0 +1,96 @@
+package com.example.ruleengine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// ColumnKernels.java
+// Inner loops of columnar evaluation. Each call covers one 64-row word starting at a multiple of 64
+// and returns one bit per row. The scalar implementation is always available; when the application
+// is built with the "vector" profile and run with --add-modules jdk.incubator.vector, the SIMD
+// implementation in src/vector/java is picked up instead.
+interface ColumnKernels {
+
+    // Rows whose value compares true against the threshold
+    long compare(double[] values, int from, ComparisonOperator operator, double threshold);
+
+    // Rows whose kind byte equals the given kind
+    long kindMask(byte[] kinds, int from, byte kind);
+
+    ColumnKernels INSTANCE = Loader.load();
+
+    final class Loader {
+        private static final Logger log = LoggerFactory.getLogger(ColumnKernels.class);
+        private static final String VECTOR_KERNELS = "com.example.ruleengine.VectorColumnKernels";
+
+        private Loader() {
+        }
+
+        private static ColumnKernels load() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    ColumnKernels kernels = (ColumnKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+                    log.info("Columnar evaluation uses {}", kernels);
+                    return kernels;
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    log.debug("Vector kernels not available, using scalar loops", e);
+                }
+            }
+            return new Scalar();
+        }
+    }
+
+    // Plain loops; branch-free per row so C2 can unroll them
+    final class Scalar implements ColumnKernels {
+        @Override
+        public long compare(double[] values, int from, ComparisonOperator operator, double threshold) {
+            long bits = 0;
+            switch (operator) {
+                case EQ -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] == threshold ? 1L : 0L) << i;
+                    }
+                }
+                case NE -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] != threshold ? 1L : 0L) << i;
+                    }
+                }
+                case GT -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] > threshold ? 1L : 0L) << i;
+                    }
+                }
+                case GE -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] >= threshold ? 1L : 0L) << i;
+                    }
+                }
+                case LT -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] < threshold ? 1L : 0L) << i;
+                    }
+                }
+                case LE -> {
+                    for (int i = 0; i < 64; i++) {
+                        bits |= (values[from + i] <= threshold ? 1L : 0L) << i;
+                    }
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        public long kindMask(byte[] kinds, int from, byte kind) {
+            long bits = 0;
+            for (int i = 0; i < 64; i++) {
+                bits |= (kinds[from + i] == kind ? 1L : 0L) << i;
+            }
+            return bits;
+        }
+
+        @Override
+        public String toString() {
+            return "scalar kernels";
+        }
+    }
+}
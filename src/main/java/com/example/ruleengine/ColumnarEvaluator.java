@@ -0,0 +1,177 @@
+package com.example.ruleengine;
+
+import java.util.Arrays;
+
+// ColumnarEvaluator.java
+// Evaluates a SchemaRule over a whole RecordBatch at once. Every node yields two bitmasks, one bit
+// per row: rows where it is true and rows where it fails with an error. Leaves compare a column
+// 64 rows at a time through ColumnKernels; AND/OR/NOT combine masks word by word. Each child only
+// looks at the rows still undecided by its earlier siblings, so short-circuit order, and therefore
+// which rows end up as errors, is the same as evaluating every row on its own.
+public final class ColumnarEvaluator {
+
+    // Outcome of a whole batch; rows marked invalid in the batch are in neither mask
+    public record Result(long[] matches, long[] errors, int size) {
+        public boolean matches(int row) {
+            return (matches[row >>> 6] & (1L << row)) != 0;
+        }
+
+        public boolean isError(int row) {
+            return (errors[row >>> 6] & (1L << row)) != 0;
+        }
+
+        public int matchCount() {
+            int count = 0;
+            for (long word : matches) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        public int errorCount() {
+            int count = 0;
+            for (long word : errors) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+    }
+
+    private ColumnarEvaluator() {
+    }
+
+    public static Result evaluate(SchemaRule rule, RecordBatch batch) {
+        int words = (batch.size() + 63) >>> 6;
+        long[] rows = new long[words];
+        Arrays.fill(rows, -1L);
+        if (batch.size() % 64 != 0) {
+            rows[words - 1] = (1L << batch.size()) - 1;
+        }
+        for (int row = 0; row < batch.size(); row++) {
+            if (batch.isInvalid(row)) {
+                rows[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        long[] matches = new long[words];
+        long[] errors = new long[words];
+        evaluate(rule, batch, rows, matches, errors);
+        return new Result(matches, errors, batch.size());
+    }
+
+    // Evaluate a node for the selected rows, overwriting matches and errors with its true rows and error rows
+    private static void evaluate(SchemaRule rule, RecordBatch batch, long[] rows, long[] matches, long[] errors) {
+        if (rule instanceof SchemaRule.Comparison comparison) {
+            compare(comparison, batch, rows, matches, errors);
+        } else if (rule instanceof SchemaRule.And and) {
+            // Rows stay pending while every child so far was true
+            Arrays.fill(errors, 0);
+            long[] pending = rows.clone();
+            long[] childMatches = new long[rows.length];
+            long[] childErrors = new long[rows.length];
+            for (SchemaRule child : and.children()) {
+                if (isEmpty(pending)) {
+                    break;
+                }
+                evaluate(child, batch, pending, childMatches, childErrors);
+                for (int word = 0; word < rows.length; word++) {
+                    errors[word] |= childErrors[word];
+                    pending[word] = childMatches[word];
+                }
+            }
+            System.arraycopy(pending, 0, matches, 0, rows.length);
+        } else if (rule instanceof SchemaRule.Or or) {
+            // Rows stay pending while every child so far was false
+            Arrays.fill(matches, 0);
+            Arrays.fill(errors, 0);
+            long[] pending = rows.clone();
+            long[] childMatches = new long[rows.length];
+            long[] childErrors = new long[rows.length];
+            for (SchemaRule child : or.children()) {
+                if (isEmpty(pending)) {
+                    break;
+                }
+                evaluate(child, batch, pending, childMatches, childErrors);
+                for (int word = 0; word < rows.length; word++) {
+                    matches[word] |= childMatches[word];
+                    errors[word] |= childErrors[word];
+                    pending[word] &= ~(childMatches[word] | childErrors[word]);
+                }
+            }
+        } else if (rule instanceof SchemaRule.Constant constant) {
+            for (int word = 0; word < rows.length; word++) {
+                matches[word] = constant.value() ? rows[word] : 0;
+                errors[word] = 0;
+            }
+        } else if (rule instanceof SchemaRule.Not not) {
+            evaluate(not.child(), batch, rows, matches, errors);
+            for (int word = 0; word < rows.length; word++) {
+                matches[word] = rows[word] & ~(matches[word] | errors[word]);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported rule type: " + rule.getClass().getSimpleName());
+        }
+    }
+
+    // Leaf: number rows go through the kernels, string rows compare dictionary codes, the rest are errors
+    private static void compare(SchemaRule.Comparison comparison, RecordBatch batch, long[] rows,
+                                long[] matches, long[] errors) {
+        ColumnKernels kernels = ColumnKernels.INSTANCE;
+        int slot = comparison.slot();
+        byte[] kinds = slot < 0 ? null : batch.kindColumn(slot);
+        double[] numbers = slot < 0 ? null : batch.numberColumn(slot);
+        int[] codes = slot < 0 ? null : batch.codeColumn(slot);
+        int literal = codes == null ? -1 : batch.code(slot, comparison.literal());  // -1 matches no row
+        boolean equals = comparison.operator() == ComparisonOperator.EQ;
+
+        for (int word = 0; word < rows.length; word++) {
+            long selected = rows[word];
+            if (selected == 0) {
+                matches[word] = 0;
+                errors[word] = 0;
+                continue;
+            }
+            if (kinds == null) {
+                matches[word] = 0;
+                errors[word] = selected;
+                continue;
+            }
+            int from = word << 6;
+            long numberRows = kernels.kindMask(kinds, from, RecordBatch.NUMBER) & selected;
+            long stringRows = codes == null ? 0 : kernels.kindMask(kinds, from, RecordBatch.STRING) & selected;
+            long matched = 0;
+            long failed = selected & ~(numberRows | stringRows);
+
+            if (numberRows != 0) {
+                if (comparison.numeric()) {
+                    matched |= kernels.compare(numbers, from, comparison.operator(), comparison.number()) & numberRows;
+                } else {
+                    failed |= numberRows;
+                }
+            }
+            if (stringRows != 0) {
+                if (comparison.operator().appliesToStrings()) {
+                    for (long remaining = stringRows; remaining != 0; remaining &= remaining - 1) {
+                        int bit = Long.numberOfTrailingZeros(remaining);
+                        if ((codes[from + bit] == literal) == equals) {
+                            matched |= 1L << bit;
+                        }
+                    }
+                } else {
+                    failed |= stringRows;
+                }
+            }
+            matches[word] = matched;
+            errors[word] = failed;
+        }
+    }
+
+    private static boolean isEmpty(long[] mask) {
+        for (long word : mask) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
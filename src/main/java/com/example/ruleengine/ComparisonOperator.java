@@ -0,0 +1,36 @@
+package com.example.ruleengine;
+
+// Comparison operators that can appear inside an operand such as "age > 30"
+public enum ComparisonOperator {
+    EQ("="),
+    NE("!="),
+    GT(">"),
+    GE(">="),
+    LT("<"),
+    LE("<=");
+
+    private final String symbol;
+
+    ComparisonOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    // Only equality and inequality are defined for string values
+    public boolean appliesToStrings() {
+        return this == EQ || this == NE;
+    }
+
+    // Resolve an operator from its textual symbol
+    public static ComparisonOperator fromSymbol(String symbol) {
+        for (ComparisonOperator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operator: " + symbol);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+
+// CompiledRule.java
+// Immutable, executable form of a Node tree. Operands are parsed once by
+// RuleEngine.compile so that evaluation does no regex matching or string parsing.
+public interface CompiledRule {
+
+    boolean evaluate(Map<String, Object> data);
+
+    // Same as evaluate, reporting every operand that is actually evaluated to the tracer
+    boolean evaluate(Map<String, Object> data, EvaluationTracer tracer);
+
+    // Leaf condition: field, operator and literal resolved ahead of time
+    record Comparison(String field, ComparisonOperator operator, String literal, double number, boolean numeric)
+            implements CompiledRule {
+
+        // Build a comparison from the raw literal text, pre-parsing numbers where possible
+        static Comparison of(String field, ComparisonOperator operator, String literal) {
+            try {
+                return new Comparison(field, operator, literal, Double.parseDouble(literal), true);
+            } catch (NumberFormatException e) {
+                return new Comparison(field, operator, literal, Double.NaN, false);
+            }
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            Object dataValue = data.get(field);
+            if (dataValue instanceof String stringValue) {
+                if (!operator.appliesToStrings()) {
+                    throw new IllegalArgumentException("Invalid operator for String: " + operator.getSymbol());
+                }
+                return stringValue.equals(literal) == (operator == ComparisonOperator.EQ);
+            } else if (dataValue instanceof Number numberValue) {
+                if (!numeric) {
+                    throw new NumberFormatException("For input string: \"" + literal + "\"");
+                }
+                double dataNumericValue = numberValue.doubleValue();
+                return switch (operator) {
+                    case EQ -> dataNumericValue == number;
+                    case NE -> dataNumericValue != number;
+                    case GT -> dataNumericValue > number;
+                    case GE -> dataNumericValue >= number;
+                    case LT -> dataNumericValue < number;
+                    case LE -> dataNumericValue <= number;
+                };
+            }
+            throw new IllegalArgumentException("Unsupported data type for field: " + field);
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            boolean result = evaluate(data);
+            tracer.onOperand(this, result);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return field + " " + operator.getSymbol() + " " + literal;
+        }
+    }
+
+    // Logical AND, stops at the first false child
+    record And(CompiledRule[] children) implements CompiledRule {
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            for (CompiledRule child : children) {
+                if (!child.evaluate(data)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            for (CompiledRule child : children) {
+                if (!child.evaluate(data, tracer)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Logical OR, stops at the first true child
+    record Or(CompiledRule[] children) implements CompiledRule {
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            for (CompiledRule child : children) {
+                if (child.evaluate(data)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            for (CompiledRule child : children) {
+                if (child.evaluate(data, tracer)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Logical NOT of a single child
+    record Not(CompiledRule child) implements CompiledRule {
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            return !child.evaluate(data);
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            return !child.evaluate(data, tracer);
+        }
+    }
+
+    // Fixed outcome left behind when the optimizer folds a node away
+    record Constant(boolean value) implements CompiledRule {
+        public static final Constant TRUE = new Constant(true);
+        public static final Constant FALSE = new Constant(false);
+
+        public static Constant of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            return value;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            return value;
+        }
+    }
+}
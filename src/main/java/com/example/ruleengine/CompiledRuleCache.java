@@ -0,0 +1,150 @@
+package com.example.ruleengine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// CompiledRuleCache.java
+// Bounded cache of compiled rules keyed by rule id and version. Reads are lock-free; when the
+// total weight (number of nodes) exceeds the limit the least recently used entries are evicted.
+public class CompiledRuleCache {
+
+    // Cache key; a new version of a rule never collides with the compiled form of an older one
+    public record Key(String id, long version) {
+    }
+
+    // Snapshot of cache counters
+    public record Stats(long hits, long misses, long evictions, long size, long weight, long compileNanos) {
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private static final class Entry {
+        private final CompiledRule rule;
+        private final long weight;
+        private volatile long lastAccess;
+
+        private Entry(CompiledRule rule, long weight, long lastAccess) {
+            this.rule = rule;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final long maxWeight;
+    private final Function<Node, CompiledRule> compiler;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong compileNanos = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    public CompiledRuleCache(long maxWeight) {
+        this(maxWeight, RuleEngine::compile);
+    }
+
+    // Cache whose misses are compiled by the given function, e.g. into tiered rules
+    public CompiledRuleCache(long maxWeight, Function<Node, CompiledRule> compiler) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache weight limit must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.compiler = compiler;
+    }
+
+    // Return the compiled rule for the key, compiling the source on a miss
+    public CompiledRule get(Key key, Supplier<Node> source) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            entry.lastAccess = clock.incrementAndGet();
+            return entry.rule;
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        Node node = source.get();
+        CompiledRule compiled = compiler.apply(node);
+        compileNanos.addAndGet(System.nanoTime() - start);
+        Entry created = new Entry(compiled, countNodes(node), clock.incrementAndGet());
+        Entry existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.rule;  // Another thread compiled it first
+        }
+        weight.addAndGet(created.weight);
+        evictIfNeeded(key);
+        return compiled;
+    }
+
+    // Drop every cached version of a rule
+    public void invalidate(String id) {
+        for (Key key : entries.keySet()) {
+            if (key.id().equals(id)) {
+                Entry removed = entries.remove(key);
+                if (removed != null) {
+                    weight.addAndGet(-removed.weight);
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), weight.get(), compileNanos.get());
+    }
+
+    // Evict least recently used entries until the cache is within its weight limit
+    private void evictIfNeeded(Key justAdded) {
+        if (weight.get() <= maxWeight) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (weight.get() > maxWeight && entries.size() > 1) {
+                Key oldestKey = null;
+                long oldestAccess = Long.MAX_VALUE;
+                for (Map.Entry<Key, Entry> candidate : entries.entrySet()) {
+                    if (!candidate.getKey().equals(justAdded) && candidate.getValue().lastAccess < oldestAccess) {
+                        oldestAccess = candidate.getValue().lastAccess;
+                        oldestKey = candidate.getKey();
+                    }
+                }
+                if (oldestKey == null) {
+                    return;
+                }
+                Entry removed = entries.remove(oldestKey);
+                if (removed != null) {
+                    weight.addAndGet(-removed.weight);
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Weight of a rule is the number of nodes in its tree; counted iteratively as chains can be very deep
+    private static long countNodes(Node root) {
+        long count = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            count++;
+            if (node.getLeft() != null) {
+                pending.push(node.getLeft());
+            }
+            if (node.getRight() != null) {
+                pending.push(node.getRight());
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ruleengine;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+
+// ConstantHandleRule.java
+// Template for the class of each rule generated by MethodHandleCompiler. It is never used under its own
+// name: every rule defines a hidden copy whose class data is the rule's handle, so HANDLE is a static
+// final constant and invokeExact a constant call site the JIT can inline through. A hidden class is
+// unloaded together with its rule.
+final class ConstantHandleRule extends MethodHandleCompiler.GeneratedRule {
+
+    private static final MethodHandle HANDLE = classData();
+
+    ConstantHandleRule(CompiledRule source) {
+        super(source);
+    }
+
+    @Override
+    public boolean evaluate(Map<String, Object> data) {
+        try {
+            return (boolean) HANDLE.invokeExact(data);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Generated rule failed: " + source(), e);
+        }
+    }
+
+    private static MethodHandle classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// EvaluationSession.java
+// Stateful evaluation of a fixed set of rules against one record that changes a few fields at a time.
+// The rules are laid out as a graph of cells, children before parents: one cell per distinct
+// condition, shared by every rule that tests it, and one per distinct AND/OR/NOT above them. The
+// session keeps the record and the outcome of every cell. An update re-runs only the conditions on the
+// changed fields (found through a field-to-cell index) and recomputes only the cells above outcomes that
+// actually changed, then reports the rules whose outcome flipped.
+//
+// Outcomes are tri-state as in RuleMatcher: a condition that would throw is an error, and a rule that
+// reaches it fails with the message RuleEngine.evaluateRule would throw.
+public final class EvaluationSession {
+
+    private static final byte FALSE = 0;
+    private static final byte TRUE = 1;
+    private static final byte ERROR = 2;
+
+    private static final byte COMPARISON = 0;
+    private static final byte ALL = 1;
+    private static final byte ANY = 2;
+    private static final byte NEGATION = 3;
+
+    // A rule that started or stopped matching or failing with an update; error is set while it fails
+    public record Change(String ruleId, boolean matched, String error) {
+    }
+
+    // Composite cell identity, so identical subtrees of different rules share one cell
+    private record Composite(byte kind, List<Integer> children) {
+    }
+
+    private final String[] ruleIds;
+    private final int[] ruleCells;
+    private final byte[] kinds;
+    private final int[][] children;
+    private final int[][] parents;
+    private final int[][] rulesOfCell;
+    private final CompiledRule.Comparison[] comparisons;
+    private final Map<String, int[]> cellsByField;
+    private final byte[] outcomes;
+    private final String[] errors;
+    private final Map<String, Object> data = new HashMap<>();
+    private long conditionEvaluations;
+
+    // Session over the given compiled rules, keyed by rule id, starting from the given record
+    public EvaluationSession(Map<String, CompiledRule> rules, Map<String, Object> initialData) {
+        List<Byte> kindList = new ArrayList<>();
+        List<int[]> childList = new ArrayList<>();
+        List<CompiledRule.Comparison> comparisonList = new ArrayList<>();
+        Map<Object, Integer> cellIds = new HashMap<>();
+
+        this.ruleIds = new String[rules.size()];
+        this.ruleCells = new int[rules.size()];
+        int index = 0;
+        for (Map.Entry<String, CompiledRule> rule : rules.entrySet()) {
+            ruleIds[index] = rule.getKey();
+            ruleCells[index] = toCell(RuleEngine.interpreted(rule.getValue()), kindList, childList, comparisonList, cellIds);
+            index++;
+        }
+
+        int cellCount = kindList.size();
+        this.kinds = new byte[cellCount];
+        this.children = childList.toArray(new int[0][]);
+        this.comparisons = comparisonList.toArray(new CompiledRule.Comparison[0]);
+        this.outcomes = new byte[cellCount];
+        this.errors = new String[cellCount];
+        int[] parentCounts = new int[cellCount];
+        Map<String, List<Integer>> byField = new LinkedHashMap<>();
+        for (int cell = 0; cell < cellCount; cell++) {
+            kinds[cell] = kindList.get(cell);
+            for (int child : children[cell]) {
+                parentCounts[child]++;
+            }
+            if (comparisons[cell] != null) {
+                byField.computeIfAbsent(comparisons[cell].field(), key -> new ArrayList<>()).add(cell);
+            }
+        }
+        this.parents = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            parents[cell] = new int[parentCounts[cell]];
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int child : children[cell]) {
+                parents[child][--parentCounts[child]] = cell;
+            }
+        }
+        this.rulesOfCell = new int[cellCount][];
+        for (int rule = 0; rule < ruleCells.length; rule++) {
+            int[] current = rulesOfCell[ruleCells[rule]];
+            int[] extended = current == null ? new int[1] : Arrays.copyOf(current, current.length + 1);
+            extended[extended.length - 1] = rule;
+            rulesOfCell[ruleCells[rule]] = extended;
+        }
+        this.cellsByField = new HashMap<>();
+        byField.forEach((field, cells) -> cellsByField.put(field, cells.stream().mapToInt(Integer::intValue).toArray()));
+
+        data.putAll(initialData);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (kinds[cell] == COMPARISON) {
+                decide(cell);
+            } else {
+                outcomes[cell] = combine(cell);
+            }
+        }
+    }
+
+    // Apply changed fields to the record (a null value removes the field) and return the rules whose
+    // outcome changed, in rule order
+    public synchronized List<Change> update(Map<String, Object> changes) {
+        BitSet dirty = new BitSet(kinds.length);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                data.remove(change.getKey());
+            } else {
+                data.put(change.getKey(), change.getValue());
+            }
+            int[] cells = cellsByField.get(change.getKey());
+            if (cells != null) {
+                for (int cell : cells) {
+                    dirty.set(cell);
+                }
+            }
+        }
+
+        // Parents always come after their children, so one ascending sweep settles every cell
+        BitSet changedRules = new BitSet(ruleIds.length);
+        for (int cell = dirty.nextSetBit(0); cell >= 0; cell = dirty.nextSetBit(cell + 1)) {
+            byte before = outcomes[cell];
+            if (kinds[cell] == COMPARISON) {
+                decide(cell);
+            } else {
+                outcomes[cell] = combine(cell);
+            }
+            if (outcomes[cell] == before) {
+                continue;
+            }
+            for (int parent : parents[cell]) {
+                dirty.set(parent);
+            }
+            if (rulesOfCell[cell] != null) {
+                for (int rule : rulesOfCell[cell]) {
+                    changedRules.set(rule);
+                }
+            }
+        }
+
+        List<Change> result = new ArrayList<>();
+        for (int rule = changedRules.nextSetBit(0); rule >= 0; rule = changedRules.nextSetBit(rule + 1)) {
+            byte outcome = outcomes[ruleCells[rule]];
+            result.add(new Change(ruleIds[rule], outcome == TRUE, outcome == ERROR ? errorOf(ruleCells[rule]) : null));
+        }
+        return result;
+    }
+
+    // Current outcome of every rule, in the form RuleMatcher reports
+    public synchronized RuleMatcher.MatchResult result() {
+        List<String> matches = new ArrayList<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (int rule = 0; rule < ruleIds.length; rule++) {
+            byte outcome = outcomes[ruleCells[rule]];
+            if (outcome == TRUE) {
+                matches.add(ruleIds[rule]);
+            } else if (outcome == ERROR) {
+                failures.put(ruleIds[rule], errorOf(ruleCells[rule]));
+            }
+        }
+        return new RuleMatcher.MatchResult(matches, failures);
+    }
+
+    // Copy of the record as of the last update
+    public synchronized Map<String, Object> getData() {
+        return Collections.unmodifiableMap(new HashMap<>(data));
+    }
+
+    public int getRuleCount() {
+        return ruleIds.length;
+    }
+
+    // Number of distinct conditions and AND/OR/NOT nodes shared by all rules
+    public int getCellCount() {
+        return kinds.length;
+    }
+
+    // Conditions run so far, including the initial evaluation
+    public synchronized long getConditionEvaluations() {
+        return conditionEvaluations;
+    }
+
+    // Run one condition against the record
+    private void decide(int cell) {
+        conditionEvaluations++;
+        try {
+            outcomes[cell] = comparisons[cell].evaluate(data) ? TRUE : FALSE;
+            errors[cell] = null;
+        } catch (IllegalArgumentException e) {
+            outcomes[cell] = ERROR;
+            errors[cell] = e.getMessage();
+        }
+    }
+
+    // Outcome of a composite cell from its children, with the short-circuit order of evaluateRule
+    private byte combine(int cell) {
+        int[] inputs = children[cell];
+        return switch (kinds[cell]) {
+            case ALL -> firstOther(inputs, TRUE);
+            case ANY -> firstOther(inputs, FALSE);
+            default -> outcomes[inputs[0]] == ERROR ? ERROR : (outcomes[inputs[0]] == TRUE ? FALSE : TRUE);
+        };
+    }
+
+    // Outcome of the first child that is not the given one, which decides an AND (TRUE) or OR (FALSE)
+    private byte firstOther(int[] inputs, byte passing) {
+        for (int input : inputs) {
+            if (outcomes[input] != passing) {
+                return outcomes[input];
+            }
+        }
+        return passing;
+    }
+
+    // Message of the failing condition that decided a failed cell
+    private String errorOf(int cell) {
+        while (kinds[cell] != COMPARISON) {
+            if (kinds[cell] == NEGATION) {
+                cell = children[cell][0];
+                continue;
+            }
+            byte passing = kinds[cell] == ALL ? TRUE : FALSE;
+            for (int input : children[cell]) {
+                if (outcomes[input] != passing) {
+                    cell = input;
+                    break;
+                }
+            }
+        }
+        return errors[cell];
+    }
+
+    // Add the cells of a rule children first and return the cell of its root
+    private static int toCell(CompiledRule rule, List<Byte> kinds, List<int[]> children,
+                              List<CompiledRule.Comparison> comparisons, Map<Object, Integer> cellIds) {
+        if (rule instanceof CompiledRule.Comparison comparison) {
+            return cellIds.computeIfAbsent(comparison, key -> addCell(COMPARISON, new int[0], comparison, kinds, children, comparisons));
+        }
+        byte kind;
+        CompiledRule[] inputs;
+        if (rule instanceof CompiledRule.Constant constant) {
+            kind = constant.value() ? ALL : ANY;  // With no children an AND is always true, an OR always false
+            inputs = new CompiledRule[0];
+        } else if (rule instanceof CompiledRule.And and) {
+            kind = ALL;
+            inputs = and.children();
+        } else if (rule instanceof CompiledRule.Or or) {
+            kind = ANY;
+            inputs = or.children();
+        } else if (rule instanceof CompiledRule.Not not) {
+            kind = NEGATION;
+            inputs = new CompiledRule[] { not.child() };
+        } else {
+            throw new IllegalArgumentException("Unsupported rule type: " + rule.getClass().getSimpleName());
+        }
+        int[] inputCells = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputCells[i] = toCell(inputs[i], kinds, children, comparisons, cellIds);
+        }
+        Composite key = new Composite(kind, Arrays.stream(inputCells).boxed().toList());
+        return cellIds.computeIfAbsent(key, ignored -> addCell(kind, inputCells, null, kinds, children, comparisons));
+    }
+
+    private static int addCell(byte kind, int[] inputs, CompiledRule.Comparison comparison, List<Byte> kinds,
+                               List<int[]> children, List<CompiledRule.Comparison> comparisons) {
+        kinds.add(kind);
+        children.add(inputs);
+        comparisons.add(comparison);
+        return kinds.size() - 1;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ruleengine;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// EvaluationSessions.java
+// Open EvaluationSessions by id. A session compiles the rules it is opened with once and keeps using
+// those versions; later updates to the rules are not seen by sessions that are already open. At most
+// ruleengine.sessions.max-sessions sessions are open at once, and a session not used for
+// ruleengine.sessions.idle-timeout-ms is closed, either when it is next looked up or by a periodic sweep.
+@Service
+public class EvaluationSessions {
+
+    // Open session and the clock reading of its last use
+    private static final class OpenSession {
+        private final EvaluationSession session;
+        private volatile long lastUsed;
+
+        private OpenSession(EvaluationSession session, long lastUsed) {
+            this.session = session;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final RuleRegistry ruleRegistry;
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    private final Map<String, OpenSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();  // Reserved slots, including sessions being built
+
+    @Autowired
+    public EvaluationSessions(RuleRegistry ruleRegistry, @Value("${ruleengine.sessions.max-sessions:10000}") int maxSessions,
+                              @Value("${ruleengine.sessions.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+        this(ruleRegistry, maxSessions, idleTimeoutMillis, System::nanoTime);
+    }
+
+    // Sessions reading time from the given nanosecond clock
+    EvaluationSessions(RuleRegistry ruleRegistry, int maxSessions, long idleTimeoutMillis, LongSupplier clock) {
+        if (maxSessions < 0 || idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Session limit must not be negative and the idle timeout must be positive");
+        }
+        this.ruleRegistry = ruleRegistry;
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeoutMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    // Open a session over the given registered rules, or over every registered rule if ids is null
+    public Map.Entry<String, EvaluationSession> open(Collection<String> ids, Map<String, Object> data) {
+        // Reserve the slot before building, so concurrent opens cannot overshoot the limit
+        if (open.incrementAndGet() > maxSessions) {
+            open.decrementAndGet();
+            evictIdle();
+            if (open.incrementAndGet() > maxSessions) {
+                open.decrementAndGet();
+                throw new IllegalStateException("Too many open sessions");
+            }
+        }
+        try {
+            EvaluationSession session = new EvaluationSession(compile(ids), data);
+            String id = UUID.randomUUID().toString();
+            sessions.put(id, new OpenSession(session, clock.getAsLong()));
+            return Map.entry(id, session);
+        } catch (RuntimeException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // Session by id; using it keeps it open for another idle timeout
+    public Optional<EvaluationSession> get(String id) {
+        OpenSession entry = sessions.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        long now = clock.getAsLong();
+        if (now - entry.lastUsed >= idleTimeoutNanos) {
+            remove(id, entry);
+            return Optional.empty();
+        }
+        entry.lastUsed = now;
+        return Optional.of(entry.session);
+    }
+
+    public boolean close(String id) {
+        OpenSession entry = sessions.get(id);
+        return entry != null && remove(id, entry);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // Close every session idle for longer than the timeout; returns how many were closed
+    @Scheduled(fixedDelayString = "${ruleengine.sessions.sweep-interval-ms:60000}")
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<String, OpenSession> entry : sessions.entrySet()) {
+            if (now - entry.getValue().lastUsed >= idleTimeoutNanos && remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // Remove the session unless another thread already did, and release its slot
+    private boolean remove(String id, OpenSession entry) {
+        if (!sessions.remove(id, entry)) {
+            return false;
+        }
+        open.decrementAndGet();
+        return true;
+    }
+
+    private Map<String, CompiledRule> compile(Collection<String> ids) {
+        Map<String, CompiledRule> compiled = new LinkedHashMap<>();
+        if (ids == null) {
+            for (RegisteredRule rule : ruleRegistry.list()) {
+                compiled.put(rule.id(), RuleOptimizer.optimize(RuleEngine.compile(rule.rule())));
+            }
+        } else {
+            for (String id : ids) {
+                RegisteredRule rule = ruleRegistry.get(id).orElseThrow(() -> new IllegalArgumentException("Unknown rule id: " + id));
+                compiled.put(id, RuleOptimizer.optimize(RuleEngine.compile(rule.rule())));
+            }
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ruleengine;
+
+// Receives the outcome of every operand evaluated while tracing; implementations must be cheap
+@FunctionalInterface
+public interface EvaluationTracer {
+
+    // Tracer that ignores everything, used when tracing is disabled
+    EvaluationTracer NOOP = (operand, result) -> { };
+
+    void onOperand(CompiledRule.Comparison operand, boolean result);
+}
@@ -0,0 +1,67 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// EvaluationTracing.java
+// Decides per request whether an evaluation is traced. Requests opt in with explain=true, and a
+// configurable fraction of all other requests is sampled and logged. Untraced requests take the
+// plain CompiledRule.evaluate path and pay nothing for tracing.
+@Component
+public class EvaluationTracing {
+
+    private static final Logger log = LoggerFactory.getLogger(EvaluationTracing.class);
+
+    // Outcome of one operand, in evaluation order
+    public record OperandTrace(String operand, boolean result) {
+    }
+
+    // Result of an evaluation; operands is null unless the caller asked for an explanation
+    public record TracedResult(boolean result, List<OperandTrace> operands) {
+    }
+
+    // Tracer collecting operand outcomes for a single evaluation
+    private static final class RecordingTracer implements EvaluationTracer {
+        private final List<OperandTrace> operands = new ArrayList<>();
+
+        @Override
+        public void onOperand(CompiledRule.Comparison operand, boolean result) {
+            operands.add(new OperandTrace(operand.toString(), result));
+        }
+    }
+
+    private final double sampleRate;
+
+    public EvaluationTracing(@Value("${ruleengine.trace.sample-rate:0.0}") double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("Trace sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    // Evaluate a rule, tracing it if the caller asked for an explanation or the request is sampled
+    public TracedResult evaluate(String ruleId, CompiledRule rule, Map<String, Object> data, boolean explain) {
+        boolean sampled = isSampled();
+        if (!explain && !sampled) {
+            return new TracedResult(rule.evaluate(data), null);
+        }
+
+        RecordingTracer tracer = new RecordingTracer();
+        boolean result = rule.evaluate(data, tracer);
+        if (sampled) {
+            log.info("rule_trace rule={} result={} operands={}", ruleId, result, tracer.operands);
+        }
+        return new TracedResult(result, explain ? tracer.operands : null);
+    }
+
+    private boolean isSampled() {
+        return sampleRate > 0.0 && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ruleengine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// RuleStore backed by the rule_definition table. Rules are stored flat, children before parents, with
+// children referenced by position:
+//   [{"nodeType":"operand","value":"age > 30"},{"nodeType":"operand","value":"income > 50000"},
+//    {"nodeType":"operator","value":"AND","left":0,"right":1}]
+// so a chain of any length is two levels of JSON and neither writing nor reading recurses. Rows written
+// in the older nested Node form are still read.
+@Component
+public class JpaRuleStore implements RuleStore {
+
+    private final RuleRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public JpaRuleStore(RuleRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional
+    public RegisteredRule create(Node rule) {
+        return toRegisteredRule(repository.save(new RuleEntity(serialize(rule))));
+    }
+
+    @Override
+    @Transactional
+    public Optional<RegisteredRule> update(String id, Node rule) {
+        return parseId(id).flatMap(repository::findById).map(entity -> {
+            entity.replaceAst(serialize(rule));
+            return toRegisteredRule(repository.save(entity));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RegisteredRule> find(String id) {
+        return parseId(id).flatMap(repository::findById).map(this::toRegisteredRule);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RegisteredRule> findAll() {
+        return repository.findAllByOrderByIdAsc().stream().map(this::toRegisteredRule).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RegisteredRule> findHottest(int limit) {
+        return repository.findAllByOrderByEvaluationCountDesc(PageRequest.of(0, limit)).stream()
+                .map(this::toRegisteredRule)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public boolean delete(String id) {
+        Optional<Long> key = parseId(id).filter(repository::existsById);
+        key.ifPresent(repository::deleteById);
+        return key.isPresent();
+    }
+
+    @Override
+    @Transactional
+    public void recordEvaluations(Map<String, Long> counts) {
+        counts.forEach((id, count) -> parseId(id).ifPresent(key -> repository.addEvaluations(key, count)));
+    }
+
+    private RegisteredRule toRegisteredRule(RuleEntity entity) {
+        try {
+            return new RegisteredRule(String.valueOf(entity.getId()), entity.getVersion(), deserialize(entity.getAst()));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalStateException("Stored rule " + entity.getId() + " cannot be read", e);
+        }
+    }
+
+    // Write the nodes children first, each shared subtree once
+    private String serialize(Node rule) {
+        ArrayNode nodes = objectMapper.createArrayNode();
+        Map<Node, Integer> written = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(rule);
+        while (!pending.isEmpty()) {
+            Node node = pending.peek();
+            if (written.containsKey(node)) {
+                pending.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (Node child : new Node[] { node.getRight(), node.getLeft() }) {
+                if (child != null && !written.containsKey(child)) {
+                    pending.push(child);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                pending.pop();
+                ObjectNode entry = nodes.addObject();
+                entry.put("nodeType", node.getNodeType());
+                entry.put("value", node.getValue());
+                if (node.getLeft() != null) {
+                    entry.put("left", written.get(node.getLeft()));
+                }
+                if (node.getRight() != null) {
+                    entry.put("right", written.get(node.getRight()));
+                }
+                written.put(node, nodes.size() - 1);
+            }
+        }
+        try {
+            return objectMapper.writeValueAsString(nodes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Rule cannot be serialized", e);
+        }
+    }
+
+    // Rebuild the shared tree in stored order; the last node is the root
+    private Node deserialize(String ast) throws JsonProcessingException {
+        JsonNode stored = objectMapper.readTree(ast);
+        if (!stored.isArray()) {
+            return objectMapper.treeToValue(stored, Node.class);  // Nested form
+        }
+        if (stored.isEmpty()) {
+            throw new IllegalArgumentException("Stored rule has no nodes");
+        }
+        Node[] nodes = new Node[stored.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            JsonNode entry = stored.get(i);
+            String value = entry.path("value").asText(null);
+            nodes[i] = NodeType.fromName(entry.path("nodeType").asText()) == NodeType.OPERAND
+                    ? Node.operand(value)
+                    : Node.operator(value, child(nodes, entry.get("left"), i), child(nodes, entry.get("right"), i));
+        }
+        return nodes[nodes.length - 1];
+    }
+
+    // Child of the node at the given position, which must have been stored before it
+    private static Node child(Node[] nodes, JsonNode reference, int position) {
+        if (reference == null || reference.isNull()) {
+            return null;
+        }
+        if (!reference.isInt() || reference.asInt() < 0 || reference.asInt() >= position) {
+            throw new IllegalArgumentException("Stored rule refers to node " + reference + " from node " + position);
+        }
+        return nodes[reference.asInt()];
+    }
+
+    // Rule ids are numeric database keys; anything else simply does not exist
+    private static Optional<Long> parseId(String id) {
+        try {
+            return Optional.of(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
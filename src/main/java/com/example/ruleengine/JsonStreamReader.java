@@ -0,0 +1,187 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+// JsonStreamReader.java
+// Reads rules and records straight from Jackson tokens instead of binding them to Map<String, Object>
+// first. Rules become Node trees with the same structure and errors as RuleEngine.createRuleFromJson
+// and createRuleFromPayload. Record fields are written into RecordBatch columns as they are read:
+// fields outside the schema are skipped without being materialised, and a string equal to the previous
+// value of its slot is reused without allocating a new String.
+public final class JsonStreamReader {
+
+    private final RecordSchema schema;
+    private final String[] lastStrings;
+
+    // Reader for records of the given schema
+    public JsonStreamReader(RecordSchema schema) {
+        this.schema = schema;
+        this.lastStrings = new String[schema.size()];
+    }
+
+    // Read the object at the current START_OBJECT token into a new row of the batch; numbers and strings
+    // are kept, every other value leaves its slot ABSENT. Returns the row index.
+    public int readRecord(JsonParser parser, RecordBatch batch) throws IOException {
+        int row = batch.addRow();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int slot = schema.slot(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (slot < 0) {
+                parser.skipChildren();
+            } else if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                batch.setNumber(slot, row, parser.getDoubleValue());
+            } else if (value == JsonToken.VALUE_STRING) {
+                batch.setString(slot, row, text(parser, slot));
+            } else {
+                parser.skipChildren();
+                batch.setAbsent(slot, row);  // A repeated field replaces any earlier value, as in a map
+            }
+        }
+        return row;
+    }
+
+    // Read a rule payload object at the current START_OBJECT token: either a rule string under "rule"
+    // or a JSON rule structure under "rules". Other fields are skipped.
+    public static Node readPayload(JsonParser parser) throws IOException {
+        String ruleString = null;
+        Node rules = null;
+        RuntimeException rulesError = null;
+        boolean hasRules = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("rule".equals(field)) {
+                ruleString = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                parser.skipChildren();
+            } else if ("rules".equals(field)) {
+                hasRules = true;
+                try {
+                    rules = readRules(parser);
+                    rulesError = null;
+                } catch (IllegalArgumentException | ClassCastException e) {
+                    // Only reported if there is no rule string, as createRuleFromPayload would
+                    rulesError = e;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (ruleString != null && !ruleString.trim().isEmpty()) {
+            return RuleEngine.createRule(ruleString);
+        }
+        if (!hasRules) {
+            throw new IllegalArgumentException("Invalid JSON structure for rules");
+        }
+        if (rulesError != null) {
+            throw rulesError;
+        }
+        return rules;
+    }
+
+    // Read the value of a "rules" field at its current token: one {"operator", "left", "right"} object,
+    // or a list of them combined with AND. An empty list yields null, like createRuleFromJson.
+    public static Node readRules(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return readRule(parser);
+        }
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            throw new IllegalArgumentException("Rules must be a valid JSON object or a list");
+        }
+        Node combined = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Each rule in the list must be a valid JSON object");
+            }
+            Node rule = readRule(parser);
+            combined = combined == null ? rule : Node.operator("AND", combined, rule);
+        }
+        return combined;
+    }
+
+    // One rule object; its operands are read from the "operand" field of "left" and "right"
+    private static Node readRule(JsonParser parser) throws IOException {
+        String operator = null;
+        String left = null;
+        String right = null;
+        boolean hasLeft = false;
+        boolean hasRight = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "operator" -> {
+                    operator = value == JsonToken.VALUE_NULL ? null : stringValue(parser, value, "operator");
+                }
+                case "left" -> {
+                    hasLeft = value == JsonToken.START_OBJECT;
+                    left = hasLeft ? readOperand(parser) : skip(parser);
+                }
+                case "right" -> {
+                    hasRight = value == JsonToken.START_OBJECT;
+                    right = hasRight ? readOperand(parser) : skip(parser);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (!hasLeft) {
+            throw new IllegalArgumentException("left must be a valid JSON object");
+        }
+        if (!hasRight) {
+            throw new IllegalArgumentException("right must be a valid JSON object");
+        }
+        return Node.operator(operator, Node.operand(left), Node.operand(right));
+    }
+
+    private static String readOperand(JsonParser parser) throws IOException {
+        String operand = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("operand".equals(field)) {
+                operand = value == JsonToken.VALUE_NULL ? null : stringValue(parser, value, "operand");
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return operand;
+    }
+
+    private static String stringValue(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            throw new IllegalArgumentException("'" + field + "' must be a string");
+        }
+        return parser.getText();
+    }
+
+    private static String skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    // Current string token, reusing the slot's previous value when the characters are the same
+    private String text(JsonParser parser, int slot) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        String last = lastStrings[slot];
+        if (last != null && last.length() == length) {
+            int i = 0;
+            while (i < length && last.charAt(i) == chars[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                return last;
+            }
+        }
+        String text = new String(chars, offset, length);
+        lastStrings[slot] = text;
+        return text;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+// MethodHandleCompiler.java
+// Second-tier compiler for hot rules. A CompiledRule tree is turned into a single MethodHandle
+// of type (Map)boolean: every comparison becomes a static leaf specialised for its operator with
+// the field name and literal bound as constants, AND/OR become guardWithTest chains and NOT a
+// return-value filter. Each rule gets its own hidden class holding the handle as a static final
+// constant, so the JIT can inline the whole rule into that class's evaluate method.
+// Results and exceptions are identical to the interpreted tree, including short-circuit order.
+public final class MethodHandleCompiler {
+
+    // Subtrees nested deeper than this stay interpreted to keep the combinator chain shallow
+    static final int MAX_DEPTH = 64;
+
+    private static final MethodType LEAF_TYPE =
+            MethodType.methodType(boolean.class, String.class, String.class, double.class, Map.class);
+    private static final MethodType RULE_TYPE = MethodType.methodType(boolean.class, Map.class);
+
+    private static final Map<ComparisonOperator, MethodHandle> NUMERIC_LEAVES = new EnumMap<>(ComparisonOperator.class);
+    private static final MethodHandle STRING_EQUALS;
+    private static final MethodHandle INTERPRET;
+    private static final MethodHandle NOT;
+    private static final MethodHandle ALWAYS_TRUE = constant(true);
+    private static final MethodHandle ALWAYS_FALSE = constant(false);
+    private static final byte[] TEMPLATE = template();
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            NUMERIC_LEAVES.put(ComparisonOperator.EQ, lookup.findStatic(MethodHandleCompiler.class, "equal", LEAF_TYPE));
+            NUMERIC_LEAVES.put(ComparisonOperator.NE, lookup.findStatic(MethodHandleCompiler.class, "notEqual", LEAF_TYPE));
+            NUMERIC_LEAVES.put(ComparisonOperator.GT, lookup.findStatic(MethodHandleCompiler.class, "greaterThan", LEAF_TYPE));
+            NUMERIC_LEAVES.put(ComparisonOperator.GE, lookup.findStatic(MethodHandleCompiler.class, "greaterOrEqual", LEAF_TYPE));
+            NUMERIC_LEAVES.put(ComparisonOperator.LT, lookup.findStatic(MethodHandleCompiler.class, "lessThan", LEAF_TYPE));
+            NUMERIC_LEAVES.put(ComparisonOperator.LE, lookup.findStatic(MethodHandleCompiler.class, "lessOrEqual", LEAF_TYPE));
+            STRING_EQUALS = lookup.findStatic(MethodHandleCompiler.class, "stringEquals",
+                    MethodType.methodType(boolean.class, String.class, String.class, boolean.class, Map.class));
+            INTERPRET = lookup.findVirtual(CompiledRule.class, "evaluate", RULE_TYPE);
+            NOT = lookup.findStatic(MethodHandleCompiler.class, "not", MethodType.methodType(boolean.class, boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Rule backed by a generated MethodHandle; tracing still goes through the interpreted tree
+    public abstract static class GeneratedRule implements CompiledRule {
+
+        private final CompiledRule source;
+
+        GeneratedRule(CompiledRule source) {
+            this.source = source;
+        }
+
+        public CompiledRule source() {
+            return source;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            return source.evaluate(data, tracer);
+        }
+    }
+
+    private MethodHandleCompiler() {
+    }
+
+    // Generate the MethodHandle form of a compiled rule, bound into a hidden class of its own
+    public static GeneratedRule generate(CompiledRule rule) {
+        MethodHandle handle = handle(rule, 0);
+        try {
+            Class<?> hidden = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, handle, true).lookupClass();
+            return (GeneratedRule) MethodHandles.lookup().in(hidden)
+                    .findConstructor(hidden, MethodType.methodType(void.class, CompiledRule.class))
+                    .invoke(rule);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Rule could not be generated: " + rule, e);
+        }
+    }
+
+    private static MethodHandle handle(CompiledRule rule, int depth) {
+        if (depth > MAX_DEPTH) {
+            return INTERPRET.bindTo(rule);
+        }
+        if (rule instanceof CompiledRule.Comparison comparison) {
+            return leaf(comparison);
+        } else if (rule instanceof CompiledRule.And and) {
+            return junction(and.children(), 0, and.children().length, true, depth);
+        } else if (rule instanceof CompiledRule.Or or) {
+            return junction(or.children(), 0, or.children().length, false, depth);
+        } else if (rule instanceof CompiledRule.Not not) {
+            return MethodHandles.filterReturnValue(handle(not.child(), depth + 1), NOT);
+        } else if (rule instanceof CompiledRule.Constant constant) {
+            return constant.value() ? ALWAYS_TRUE : ALWAYS_FALSE;
+        }
+        // Any other implementation is called as is
+        return INTERPRET.bindTo(rule);
+    }
+
+    // Children from..to of an n-ary node, split in halves so long chains nest logarithmically:
+    // a AND b == a ? b : false, a OR b == a ? true : b. Evaluation order stays left to right.
+    private static MethodHandle junction(CompiledRule[] children, int from, int to, boolean and, int depth) {
+        if (to - from == 1) {
+            return handle(children[from], depth + 1);
+        }
+        if (depth > MAX_DEPTH) {
+            CompiledRule[] range = Arrays.copyOfRange(children, from, to);
+            return INTERPRET.bindTo(and ? new CompiledRule.And(range) : new CompiledRule.Or(range));
+        }
+        int middle = (from + to) >>> 1;
+        MethodHandle first = junction(children, from, middle, and, depth + 1);
+        MethodHandle rest = junction(children, middle, to, and, depth + 1);
+        return and ? MethodHandles.guardWithTest(first, rest, ALWAYS_FALSE)
+                : MethodHandles.guardWithTest(first, ALWAYS_TRUE, rest);
+    }
+
+    private static MethodHandle leaf(CompiledRule.Comparison comparison) {
+        if (comparison.numeric()) {
+            return MethodHandles.insertArguments(NUMERIC_LEAVES.get(comparison.operator()), 0,
+                    comparison.field(), comparison.literal(), comparison.number());
+        }
+        if (comparison.operator().appliesToStrings()) {
+            return MethodHandles.insertArguments(STRING_EQUALS, 0,
+                    comparison.field(), comparison.literal(), comparison.operator() == ComparisonOperator.EQ);
+        }
+        // Ordering against a non-numeric literal can only fail; leave the error reporting to the interpreter
+        return INTERPRET.bindTo(comparison);
+    }
+
+    // Class file of ConstantHandleRule, from which each rule's hidden class is defined
+    private static byte[] template() {
+        try (InputStream in = ConstantHandleRule.class.getResourceAsStream(ConstantHandleRule.class.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new ExceptionInInitializerError("Missing class file of " + ConstantHandleRule.class.getName());
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constant(boolean value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, Map.class);
+    }
+
+    private static boolean not(boolean value) {
+        return !value;
+    }
+
+    // Leaves for numeric literals: the common case is a Number value, everything else takes the slow path
+
+    private static boolean equal(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() == number
+                : nonNumeric(field, ComparisonOperator.EQ, literal, value);
+    }
+
+    private static boolean notEqual(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() != number
+                : nonNumeric(field, ComparisonOperator.NE, literal, value);
+    }
+
+    private static boolean greaterThan(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() > number
+                : nonNumeric(field, ComparisonOperator.GT, literal, value);
+    }
+
+    private static boolean greaterOrEqual(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() >= number
+                : nonNumeric(field, ComparisonOperator.GE, literal, value);
+    }
+
+    private static boolean lessThan(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() < number
+                : nonNumeric(field, ComparisonOperator.LT, literal, value);
+    }
+
+    private static boolean lessOrEqual(String field, String literal, double number, Map<String, Object> data) {
+        Object value = data.get(field);
+        return value instanceof Number numberValue ? numberValue.doubleValue() <= number
+                : nonNumeric(field, ComparisonOperator.LE, literal, value);
+    }
+
+    // Same semantics as Comparison.evaluate for a value that is not a Number
+    private static boolean nonNumeric(String field, ComparisonOperator operator, String literal, Object value) {
+        if (value instanceof String stringValue) {
+            if (!operator.appliesToStrings()) {
+                throw new IllegalArgumentException("Invalid operator for String: " + operator.getSymbol());
+            }
+            return stringValue.equals(literal) == (operator == ComparisonOperator.EQ);
+        }
+        throw new IllegalArgumentException("Unsupported data type for field: " + field);
+    }
+
+    // Leaf for = and != against a non-numeric literal
+    private static boolean stringEquals(String field, String literal, boolean expected, Map<String, Object> data) {
+        Object value = data.get(field);
+        if (value instanceof String stringValue) {
+            return stringValue.equals(literal) == expected;
+        } else if (value instanceof Number) {
+            throw new NumberFormatException("For input string: \"" + literal + "\"");
+        }
+        throw new IllegalArgumentException("Unsupported data type for field: " + field);
+    }
+}
@@ -1,18 +1,46 @@
 package com.example.ruleengine;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
 // Node.java
-public class Node {
-    private final String nodeType;  // "operator" or "operand"
-    private final String value;      // The actual operator (AND/OR) or operand (like age > 30)
-    private final Node left;         // Left child (only applicable for operators)
-    private final Node right;        // Right child (only applicable for operators)
+// Immutable rule tree node. Nodes built through the factories (and read from JSON) are hash-consed:
+// identical subtrees across all rules share one canonical instance, held in weak tables so unused
+// trees can still be collected. The structural hash is computed once at construction. The children of
+// a canonical node are canonical themselves, so equality compares children by identity and never walks
+// the tree; trees built with the constructors should be compared through canonical.
+@JsonSerialize(using = Node.JsonWriter.class)
+public final class Node {
+
+    // Canonical instances, striped by hash so that threads parsing different rules rarely contend. The
+    // value is a weak reference to the key itself so entries do not pin their nodes.
+    private static final int STRIPES = 64;
+    private static final Map<Node, WeakReference<Node>>[] CANONICAL = newTables();
 
-    // Constructor for operator nodes (with left and right children)
+    private final NodeType type;  // OPERATOR or OPERAND
+    private final String value;   // The actual operator (AND/OR) or operand (like age > 30)
+    private final Node left;      // Left child (only applicable for operators)
+    private final Node right;     // Right child (only applicable for operators)
+    private final int hash;
+    private final boolean shared; // Built for the canonical table; only the instance that won is ever handed out
+
+    // Constructor for operator nodes (with left and right children); the node is not shared, see canonical
     public Node(String nodeType, String value, Node left, Node right) {
-        this.nodeType = nodeType;
-        this.value = value;
-        this.left = left;
-        this.right = right;
+        this(NodeType.fromName(nodeType), value, left, right, false);
     }
 
     // Constructor for operand nodes (no children)
@@ -20,8 +48,101 @@ public class Node {
         this(nodeType, value, null, null);
     }
 
+    private Node(NodeType type, String value, Node left, Node right, boolean shared) {
+        this.type = type;
+        this.value = value;
+        this.left = left;
+        this.right = right;
+        this.shared = shared;
+        this.hash = ((type.ordinal() * 31 + Objects.hashCode(value)) * 31 + Objects.hashCode(left)) * 31
+                + Objects.hashCode(right);
+    }
+
+    // Shared operand node, e.g. "age > 30"
+    public static Node operand(String value) {
+        return intern(new Node(NodeType.OPERAND, value, null, null, true));
+    }
+
+    // Shared operator node (AND/OR, or NOT with only a left child)
+    public static Node operator(String value, Node left, Node right) {
+        return intern(new Node(NodeType.OPERATOR, value, canonical(left), canonical(right), true));
+    }
+
+    // Used to read stored rules back from JSON; children arrive already canonical
+    @JsonCreator
+    static Node fromJson(@JsonProperty("nodeType") String nodeType, @JsonProperty("value") String value,
+                         @JsonProperty("left") Node left, @JsonProperty("right") Node right) {
+        return NodeType.fromName(nodeType) == NodeType.OPERAND ? operand(value) : operator(value, left, right);
+    }
+
+    // Shared instance of a tree built with the constructors; rebuilt bottom-up without recursion,
+    // stopping at subtrees that are already canonical
+    public static Node canonical(Node root) {
+        if (root == null || root.shared) {
+            return root;
+        }
+        Map<Node, Node> rebuilt = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.peek();
+            if (rebuilt.containsKey(node)) {
+                pending.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (Node child : new Node[] { node.right, node.left }) {
+                if (child == null || rebuilt.containsKey(child)) {
+                    continue;
+                }
+                if (child.shared) {
+                    rebuilt.put(child, child);
+                } else {
+                    pending.push(child);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                pending.pop();
+                rebuilt.put(node, intern(new Node(node.type, node.value,
+                        node.left == null ? null : rebuilt.get(node.left),
+                        node.right == null ? null : rebuilt.get(node.right), true)));
+            }
+        }
+        return rebuilt.get(root);
+    }
+
+    // The node must only have canonical children
+    private static Node intern(Node node) {
+        Map<Node, WeakReference<Node>> table = CANONICAL[(node.hash ^ (node.hash >>> 16)) & (STRIPES - 1)];
+        synchronized (table) {
+            WeakReference<Node> reference = table.get(node);
+            Node shared = reference == null ? null : reference.get();
+            if (shared != null) {
+                return shared;
+            }
+            table.put(node, new WeakReference<>(node));
+            return node;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Map<Node, WeakReference<Node>>[] newTables() {
+        Map<Node, WeakReference<Node>>[] tables = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            tables[i] = new WeakHashMap<>();
+        }
+        return tables;
+    }
+
+    @JsonIgnore
+    public NodeType getType() {
+        return type;
+    }
+
+    // JSON name of the node type, "operator" or "operand"
     public String getNodeType() {
-        return nodeType;
+        return type.getName();
     }
 
     public String getValue() {
@@ -35,4 +156,64 @@ public class Node {
     public Node getRight() {
         return right;
     }
+
+    // Same type and value over the same child instances. For canonical nodes this is structural
+    // equality; two separately constructed trees are only equal once passed through canonical.
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Node node) || hash != node.hash) {
+            return false;
+        }
+        return type == node.type && Objects.equals(value, node.value) && left == node.left && right == node.right;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    // Writes the nested JSON form ({"nodeType", "value", "left", "right"}) with an explicit stack, so a
+    // long chain cannot overflow the thread stack; see RuleJsonCustomizer for the nesting limit
+    static final class JsonWriter extends StdSerializer<Node> {
+
+        private static final long serialVersionUID = 1L;
+
+        JsonWriter() {
+            super(Node.class);
+        }
+
+        @Override
+        public void serialize(Node root, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Deque<Node> nodes = new ArrayDeque<>();
+            Deque<Integer> stages = new ArrayDeque<>();  // 0: not started, 1: left written, 2: right written
+            nodes.push(root);
+            stages.push(0);
+            while (!nodes.isEmpty()) {
+                Node node = nodes.peek();
+                int stage = stages.pop();
+                if (stage == 2) {
+                    generator.writeEndObject();
+                    nodes.pop();
+                    continue;
+                }
+                stages.push(stage + 1);
+                if (stage == 0) {
+                    generator.writeStartObject();
+                    generator.writeStringField("nodeType", node.getNodeType());
+                    generator.writeStringField("value", node.value);
+                }
+                Node child = stage == 0 ? node.left : node.right;
+                generator.writeFieldName(stage == 0 ? "left" : "right");
+                if (child == null) {
+                    generator.writeNull();
+                } else {
+                    nodes.push(child);
+                    stages.push(0);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.ruleengine;
+
+// Kinds of rule tree node, with the name used for them in JSON ("nodeType")
+public enum NodeType {
+    OPERATOR("operator"),
+    OPERAND("operand");
+
+    private final String name;
+
+    NodeType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Resolve a node type from its JSON name
+    public static NodeType fromName(String name) {
+        for (NodeType type : values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown node type: " + name);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.ruleengine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// ParallelEvaluator.java
+// Spreads large record sets over a dedicated executor. Records are split into columnar chunks and
+// callers consume the results in input order. With ruleengine.parallel.mode=forkjoin chunks run on a
+// fork-join pool of ruleengine.parallel.parallelism threads; with "virtual" every chunk gets its own
+// virtual thread (Java 21 and later; older runtimes fall back to the fork-join pool). A global limit on
+// in-flight chunks applies back-pressure in both modes: once it is reached, callers block before
+// submitting more work, so one giant batch cannot monopolise the executor, and request threads are
+// never borrowed by it.
+@Component
+public class ParallelEvaluator {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelEvaluator.class);
+
+    // Result of evaluating one record: either a boolean or the reason it could not be evaluated
+    public record Outcome(boolean result, String error) {
+        public static final Outcome TRUE = new Outcome(true, null);
+        public static final Outcome FALSE = new Outcome(false, null);
+
+        public static Outcome of(boolean result) {
+            return result ? TRUE : FALSE;
+        }
+
+        public static Outcome failed(String error) {
+            return new Outcome(false, error);
+        }
+
+        public boolean isError() {
+            return error != null;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int chunkSize;
+    private final int windowPerBatch;
+    private final Semaphore inFlightChunks;
+
+    public ParallelEvaluator(@Value("${ruleengine.parallel.mode:forkjoin}") String mode,
+                             @Value("${ruleengine.parallel.parallelism:0}") int parallelism,
+                             @Value("${ruleengine.parallel.chunk-size:1024}") int chunkSize,
+                             @Value("${ruleengine.parallel.max-in-flight-chunks:0}") int maxInFlightChunks) {
+        if (!"forkjoin".equals(mode) && !"virtual".equals(mode)) {
+            throw new IllegalArgumentException("Unknown parallel mode: " + mode);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        int limit = maxInFlightChunks > 0 ? maxInFlightChunks : threads * 2;
+        ExecutorService virtualExecutor = "virtual".equals(mode) ? AsyncExecution.virtualThreadExecutor() : null;
+        if ("virtual".equals(mode) && virtualExecutor == null) {
+            log.warn("Virtual threads need Java 21 or later; batch chunks run on a fork-join pool");
+        }
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : new ForkJoinPool(threads);
+        this.chunkSize = chunkSize;
+        this.windowPerBatch = Math.max(1, Math.min(threads, limit));
+        this.inFlightChunks = new Semaphore(limit, true);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Maximum number of chunks a single batch should keep in flight before consuming results
+    public int getWindowPerBatch() {
+        return windowPerBatch;
+    }
+
+    // Submit one columnar chunk for evaluation, blocking while the global in-flight limit is reached
+    public Future<Outcome[]> submit(SchemaRule rule, RecordBatch chunk) throws InterruptedException {
+        inFlightChunks.acquire();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return evaluateChunk(rule, chunk);
+                } finally {
+                    inFlightChunks.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightChunks.release();
+            throw e;
+        }
+    }
+
+    // Wait for a submitted chunk; evaluation errors are captured per record, so failures here are unexpected
+    public static Outcome[] await(Future<Outcome[]> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chunk evaluation failed", e.getCause());
+        }
+    }
+
+    // Evaluate a columnar chunk with bitmasks; only rows that failed are re-run one by one for their message
+    public static Outcome[] evaluateChunk(SchemaRule rule, RecordBatch chunk) {
+        ColumnarEvaluator.Result result = ColumnarEvaluator.evaluate(rule, chunk);
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        for (int row = 0; row < outcomes.length; row++) {
+            if (chunk.isInvalid(row)) {
+                outcomes[row] = Outcome.failed("Record must be a JSON object");
+            } else if (result.isError(row)) {
+                outcomes[row] = evaluateRow(rule, chunk, row);
+            } else {
+                outcomes[row] = Outcome.of(result.matches(row));
+            }
+        }
+        return outcomes;
+    }
+
+    private static Outcome evaluateRow(SchemaRule rule, RecordBatch chunk, int row) {
+        try {
+            return Outcome.of(rule.evaluate(chunk, row));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return Outcome.failed(e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ruleengine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// RecordBatch.java
+// Column-oriented store for records of one RecordSchema. Each slot is a primitive double column,
+// a String column (allocated only once the slot holds a string) and a byte column saying which of
+// the two is set. Numbers of any type are kept as their double value, which is exactly what the
+// interpreter compares. Strings are also dictionary-encoded per slot: each distinct value gets an int
+// code, so a rule literal is looked up once per batch and rows are matched by comparing codes. Client
+// strings are never interned. Fields that are missing, null or of any other type are ABSENT and fail
+// evaluation like a missing map entry.
+// Capacity is kept a multiple of 64 so columnar evaluation can work on whole 64-row words.
+public final class RecordBatch {
+
+    public static final byte ABSENT = 0;
+    public static final byte NUMBER = 1;
+    public static final byte STRING = 2;
+
+    private final RecordSchema schema;
+    private byte[][] kinds;
+    private double[][] numbers;
+    private String[][] strings;
+    private int[][] codes;
+    private Map<String, Integer>[] dictionaries;
+    private BitSet invalid;
+    private int capacity;
+    private int size;
+
+    public RecordBatch(RecordSchema schema, int capacity) {
+        this.schema = schema;
+        int columns = schema.size();
+        this.capacity = Math.max(64, (capacity + 63) & ~63);
+        this.kinds = new byte[columns][this.capacity];
+        this.numbers = new double[columns][this.capacity];
+        this.strings = new String[columns][];
+        this.codes = new int[columns][];
+        this.dictionaries = newDictionaries(columns);
+    }
+
+    // Adapter from the Map-based record format
+    public static RecordBatch of(RecordSchema schema, List<Map<String, Object>> records) {
+        RecordBatch batch = new RecordBatch(schema, records.size());
+        for (Map<String, Object> record : records) {
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    // Append a record given as a map; fields outside the schema are ignored. Returns the row index.
+    public int add(Map<String, Object> record) {
+        int row = addRow();
+        for (int slot = 0; slot < schema.size(); slot++) {
+            Object value = record.get(schema.field(slot));
+            if (value instanceof Number number) {
+                setNumber(slot, row, number.doubleValue());
+            } else if (value instanceof String string) {
+                setString(slot, row, string);
+            }
+        }
+        return row;
+    }
+
+    // Append an empty row with every slot ABSENT and return its index
+    public int addRow() {
+        if (size == capacity) {
+            grow();
+        }
+        return size++;
+    }
+
+    // Append a row for an input that was not a record at all; it is never evaluated
+    public int addInvalidRow() {
+        int row = addRow();
+        if (invalid == null) {
+            invalid = new BitSet();
+        }
+        invalid.set(row);
+        return row;
+    }
+
+    public boolean isInvalid(int row) {
+        return invalid != null && invalid.get(row);
+    }
+
+    public void setNumber(int slot, int row, double value) {
+        kinds[slot][row] = NUMBER;
+        numbers[slot][row] = value;
+    }
+
+    public void setString(int slot, int row, String value) {
+        if (strings[slot] == null) {
+            strings[slot] = new String[capacity];
+            codes[slot] = new int[capacity];
+            dictionaries[slot] = new HashMap<>();
+        }
+        Map<String, Integer> dictionary = dictionaries[slot];
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.put(value, code);
+        }
+        kinds[slot][row] = STRING;
+        strings[slot][row] = value;
+        codes[slot][row] = code;
+    }
+
+    public void setAbsent(int slot, int row) {
+        kinds[slot][row] = ABSENT;
+    }
+
+    // Empty the batch so its columns can be filled again; capacity is kept
+    public void clear() {
+        for (int slot = 0; slot < schema.size(); slot++) {
+            Arrays.fill(kinds[slot], 0, size, ABSENT);
+            if (strings[slot] != null) {
+                Arrays.fill(strings[slot], 0, size, null);
+                dictionaries[slot].clear();
+            }
+        }
+        if (invalid != null) {
+            invalid.clear();
+        }
+        size = 0;
+    }
+
+    public byte kind(int slot, int row) {
+        return kinds[slot][row];
+    }
+
+    public double number(int slot, int row) {
+        return numbers[slot][row];
+    }
+
+    public String string(int slot, int row) {
+        return strings[slot][row];
+    }
+
+    // Dictionary code of a string in a slot, or -1 if no row of the batch holds it there
+    public int code(int slot, String value) {
+        Map<String, Integer> dictionary = dictionaries[slot];
+        Integer code = dictionary == null ? null : dictionary.get(value);
+        return code == null ? -1 : code;
+    }
+
+    // Whole numeric column; only the first size() entries are meaningful
+    public double[] numberColumn(int slot) {
+        return numbers[slot];
+    }
+
+    // Whole string column, or null if the slot has never held a string
+    public String[] stringColumn(int slot) {
+        return strings[slot];
+    }
+
+    // Dictionary codes of the string column, or null if the slot has never held a string
+    public int[] codeColumn(int slot) {
+        return codes[slot];
+    }
+
+    // Whole kind column; only the first size() entries are meaningful
+    public byte[] kindColumn(int slot) {
+        return kinds[slot];
+    }
+
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (int slot = 0; slot < schema.size(); slot++) {
+            kinds[slot] = Arrays.copyOf(kinds[slot], capacity);
+            numbers[slot] = Arrays.copyOf(numbers[slot], capacity);
+            if (strings[slot] != null) {
+                strings[slot] = Arrays.copyOf(strings[slot], capacity);
+                codes[slot] = Arrays.copyOf(codes[slot], capacity);
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Map<String, Integer>[] newDictionaries(int columns) {
+        return new Map[columns];
+    }
+}
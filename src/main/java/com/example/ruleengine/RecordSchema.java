@@ -0,0 +1,79 @@
+package com.example.ruleengine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// RecordSchema.java
+// Declared set of record fields, each resolved to a fixed integer slot. Rules compiled against a
+// schema read RecordBatch columns by slot instead of looking fields up in a map.
+public final class RecordSchema {
+
+    private final String[] fields;
+    private final Map<String, Integer> slots;
+
+    private RecordSchema(Collection<String> fields) {
+        this.fields = fields.toArray(new String[0]);
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < this.fields.length; slot++) {
+            if (slots.putIfAbsent(this.fields[slot], slot) != null) {
+                throw new IllegalArgumentException("Duplicate field in schema: " + this.fields[slot]);
+            }
+        }
+    }
+
+    public static RecordSchema of(String... fields) {
+        return new RecordSchema(List.of(fields));
+    }
+
+    public static RecordSchema of(Collection<String> fields) {
+        return new RecordSchema(fields);
+    }
+
+    // Schema holding exactly the fields a rule reads, in the order they first appear
+    public static RecordSchema forRule(CompiledRule rule) {
+        Set<String> fields = new LinkedHashSet<>();
+        collectFields(RuleEngine.interpreted(rule), fields);
+        return new RecordSchema(fields);
+    }
+
+    // Slot of a field, or -1 if the schema does not declare it
+    public int slot(String field) {
+        Integer slot = slots.get(field);
+        return slot == null ? -1 : slot;
+    }
+
+    public String field(int slot) {
+        return fields[slot];
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    private static void collectFields(CompiledRule rule, Set<String> fields) {
+        if (rule instanceof CompiledRule.Comparison comparison) {
+            fields.add(comparison.field());
+        } else if (rule instanceof CompiledRule.And and) {
+            for (CompiledRule child : and.children()) {
+                collectFields(child, fields);
+            }
+        } else if (rule instanceof CompiledRule.Or or) {
+            for (CompiledRule child : or.children()) {
+                collectFields(child, fields);
+            }
+        } else if (rule instanceof CompiledRule.Not not) {
+            collectFields(not.child(), fields);
+        } else if (!(rule instanceof CompiledRule.Constant)) {
+            throw new IllegalArgumentException("Unsupported rule type: " + rule.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", fields);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.ruleengine;
+
+// A rule stored in the RuleRegistry; the version increases every time the rule is replaced
+public record RegisteredRule(String id, long version, Node rule) {
+}
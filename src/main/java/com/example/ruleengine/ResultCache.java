@@ -0,0 +1,156 @@
+package com.example.ruleengine;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// ResultCache.java
+// Memoized evaluation results of registered rules. An entry is keyed by rule id and version plus the
+// values of only the fields that version reads, so records that differ in unrelated fields share it.
+// The field list is extracted once per compiled version. Entries expire after a TTL and the oldest
+// are evicted first once the cache is full. A limit of zero disables the cache.
+public class ResultCache {
+
+    // Cache key; the projection holds the record's values for the rule's fields, in field order
+    public record Key(String id, long version, List<Object> projection) {
+    }
+
+    // Snapshot of cache counters
+    public record Stats(long hits, long misses, long evictions, long size) {
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    // Registered rule whose plain evaluations go through the cache; traced evaluations always run the rule
+    public record MemoizedRule(ResultCache cache, CompiledRuleCache.Key key, CompiledRule rule) implements CompiledRule {
+        @Override
+        public boolean evaluate(Map<String, Object> data) {
+            return cache.evaluate(key, rule, data);
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+            return rule.evaluate(data, tracer);
+        }
+    }
+
+    private record Entry(Key key, boolean result, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<CompiledRuleCache.Key, String[]> fields = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResultCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    // Cache reading time from the given nanosecond clock
+    ResultCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Result cache size must not be negative and its TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    // The rule itself when the cache is disabled, otherwise a view of it that memoizes results
+    public CompiledRule memoize(CompiledRuleCache.Key key, CompiledRule rule) {
+        return isEnabled() ? new MemoizedRule(this, key, rule) : rule;
+    }
+
+    // Result of the rule for the record, evaluated only if no live entry exists. Failed evaluations are
+    // not cached, and neither are records holding values that could change after they were cached.
+    public boolean evaluate(CompiledRuleCache.Key ruleKey, CompiledRule rule, Map<String, Object> data) {
+        String[] ruleFields = fields.computeIfAbsent(ruleKey, key -> fieldsOf(rule));
+        Object[] projection = new Object[ruleFields.length];
+        for (int i = 0; i < ruleFields.length; i++) {
+            Object value = data.get(ruleFields[i]);
+            if (!isImmutable(value)) {
+                misses.incrementAndGet();
+                return rule.evaluate(data);
+            }
+            projection[i] = value;
+        }
+
+        Key key = new Key(ruleKey.id(), ruleKey.version(), Arrays.asList(projection));
+        long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.expiresAt < 0) {
+            hits.incrementAndGet();
+            return entry.result;
+        }
+
+        misses.incrementAndGet();
+        boolean result = rule.evaluate(data);
+        Entry created = new Entry(key, result, now + ttlNanos);
+        entries.put(key, created);
+        insertionOrder.add(created);
+        queued.incrementAndGet();
+        evictIfNeeded();
+        return result;
+    }
+
+    // Drop every cached result of a rule
+    public void invalidate(String id) {
+        fields.keySet().removeIf(key -> key.id().equals(id));
+        entries.keySet().removeIf(key -> key.id().equals(id));
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size());
+    }
+
+    // Remove entries in insertion order until the cache is within its limit. Entries that were replaced
+    // in place or invalidated only leave the queue, which is itself kept to twice the limit.
+    private void evictIfNeeded() {
+        while (entries.size() > maxEntries || queued.get() > 2 * maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static String[] fieldsOf(CompiledRule rule) {
+        RecordSchema schema = RecordSchema.forRule(rule);
+        String[] names = new String[schema.size()];
+        for (int slot = 0; slot < names.length; slot++) {
+            names[slot] = schema.field(slot);
+        }
+        return names;
+    }
+
+    // Values a rule can compare whose equality implies the same evaluation result
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte
+                || value instanceof BigDecimal || value instanceof BigInteger;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ruleengine;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Pre-compiles the hottest stored rules in the background once the application is up,
+// so a restart does not send the first requests for popular rules through a cold cache
+@Component
+public class RuleCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleCacheWarmer.class);
+
+    private final RuleRegistry ruleRegistry;
+    private final int rulesToWarm;
+
+    public RuleCacheWarmer(RuleRegistry ruleRegistry, @Value("${ruleengine.warmup.rules:100}") int rulesToWarm) {
+        this.ruleRegistry = ruleRegistry;
+        this.rulesToWarm = rulesToWarm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (rulesToWarm <= 0) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            int warmed = ruleRegistry.warmUp(rulesToWarm);
+            log.info("rule_warmup rules={} millis={}", warmed, (System.nanoTime() - start) / 1_000_000);
+        }).exceptionally(e -> {
+            log.warn("Rule warm-up failed", e);
+            return null;
+        });
+    }
+}
@@ -1,22 +1,52 @@
 package com.example.ruleengine;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
 @RequestMapping("/api/rules")  // Base URL for the API
 public class RuleController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final RuleRegistry ruleRegistry;
+    private final BatchEvaluator batchEvaluator;
+    private final ObjectMapper objectMapper;
+    private final EvaluationTracing evaluationTracing;
+    private final RuleMetrics ruleMetrics;
+
+    public RuleController(RuleRegistry ruleRegistry, BatchEvaluator batchEvaluator, ObjectMapper objectMapper,
+                          EvaluationTracing evaluationTracing, RuleMetrics ruleMetrics) {
+        this.ruleRegistry = ruleRegistry;
+        this.batchEvaluator = batchEvaluator;
+        this.objectMapper = objectMapper;
+        this.evaluationTracing = evaluationTracing;
+        this.ruleMetrics = ruleMetrics;
+    }
+
     // Endpoint to create a rule from a rule string
     @PostMapping("/create_rule")
     public ResponseEntity<Node> createRule(@RequestBody Map<String, String> payload) {
@@ -26,16 +56,18 @@ public class RuleController {
                 return ResponseEntity.badRequest().body(null); // Return error if input is invalid
             }
             // Create an AST from the rule string
-            Node rule = RuleEngine.createRule(ruleString);
+            Node rule = ruleMetrics.parse("string", () -> RuleEngine.createRule(ruleString));
             return ResponseEntity.ok(rule);
         } catch (IllegalArgumentException e) {
+            ruleMetrics.error("create_rule", e);
             return ResponseEntity.badRequest().body(null); // Return error response if the rule is invalid
         }
     }
 
     // Endpoint to evaluate a rule from JSON payload
    @PostMapping("/evaluate_rule")
-public ResponseEntity<Object> evaluateRule(@RequestBody Map<String, Object> payload) {
+public ResponseEntity<Object> evaluateRule(@RequestBody Map<String, Object> payload,
+                                           @RequestParam(defaultValue = "false") boolean explain) {
     // Check if the required fields are present in the payload
     if (!payload.containsKey("rules") || !payload.containsKey("data")) {
         return ResponseEntity.badRequest().body("Missing required fields: 'rules' or 'data'"); // More informative error
@@ -50,25 +82,49 @@ public ResponseEntity<Object> evaluateRule(@RequestBody Map<String, Object> payl
     Map<String, Object> data = (Map<String, Object>) payload.get("data");
 
     try {
-        // Create the rule from the JSON rules structure
-        Node rule = RuleEngine.createRuleFromJson(rules); // Ensure this method handles errors properly
+        // Create the rule from the JSON rules structure and compile it once
+        Node rule = ruleMetrics.parse("json", () -> RuleEngine.createRuleFromJson(rules)); // Ensure this method handles errors properly
+        CompiledRule compiledRule = ruleMetrics.compile(rule);
 
-        // Evaluate the rule with the given data
-        boolean result = RuleEngine.evaluateRule(rule, data);
-        return ResponseEntity.ok(result);
+        // Evaluate the rule with the given data; explain=true also returns the outcome of each operand
+        EvaluationTracing.TracedResult result = ruleMetrics.evaluate(RuleMetrics.AD_HOC_RULE,
+                () -> evaluationTracing.evaluate(null, compiledRule, data, explain));
+        return ResponseEntity.ok(explain ? result : result.result());
 
     } catch (IllegalArgumentException e) {
-        // Log exception for debugging
+        ruleMetrics.error("evaluate_rule", e);
         return ResponseEntity.badRequest().body("Invalid rule: " + e.getMessage());
     } catch (ClassCastException e) {
-        // Log exception for debugging
+        ruleMetrics.error("evaluate_rule", e);
         return ResponseEntity.badRequest().body("Invalid payload structure: " + e.getMessage());
     } catch (Exception e) {
         // Handle unexpected exceptions
+        ruleMetrics.error("evaluate_rule", e);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + e.getMessage());
     }
 }
 
+    // Endpoint to evaluate one rule against many records. Accepts {"rules": {...}, "data": [...]} as JSON,
+    // or NDJSON whose first line is the rule and every following line a record. Results stream back as NDJSON.
+    @PostMapping(value = "/evaluate_batch", produces = NDJSON)
+    public void evaluateBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = request.getContentType() != null && request.getContentType().startsWith(NDJSON);
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            CompiledRule rule;
+            try {
+                rule = batchEvaluator.readRule(parser, ndjson);
+            } catch (IllegalArgumentException | ClassCastException e) {
+                writeBadRequest(response, "Invalid rule: " + e.getMessage());
+                return;
+            } catch (JsonProcessingException e) {
+                writeBadRequest(response, "Malformed batch input: " + e.getOriginalMessage());
+                return;
+            }
+            response.setContentType(NDJSON);
+            batchEvaluator.evaluate(rule, parser, response.getOutputStream());
+        }
+    }
+
     // Endpoint to combine two rules
     @PostMapping("/combine_rules")
     public ResponseEntity<Node> combineRules(@RequestBody Map<String, Object> payload) {
@@ -92,21 +148,23 @@ public ResponseEntity<Object> evaluateRule(@RequestBody Map<String, Object> payl
             }
     
             // Create rules from the strings
-            Node rule1 = RuleEngine.createRule(rule1String); 
-            Node rule2 = RuleEngine.createRule(rule2String); 
+            Node rule1 = ruleMetrics.parse("string", () -> RuleEngine.createRule(rule1String));
+            Node rule2 = ruleMetrics.parse("string", () -> RuleEngine.createRule(rule2String));
     
             // Combine the rules using the specified operator (AND/OR)
             Node combinedRule = RuleEngine.combineRules(rule1, rule2, operator);
             return ResponseEntity.ok(combinedRule); // Return combined rule
         } catch (IllegalArgumentException e) {
+            ruleMetrics.error("combine_rules", e);
             return ResponseEntity.badRequest().body(null); // Return error if rules are invalid
         } catch (ClassCastException e) {
+            ruleMetrics.error("combine_rules", e);
             return ResponseEntity.badRequest().body(null); // Handle invalid payload structure
         } catch (NullPointerException e) {
-            // Log the exception for debugging
+            ruleMetrics.error("combine_rules", e);
             return ResponseEntity.badRequest().body(null); // Handle unexpected nulls gracefully
         } catch (Exception e) {
-            // Log the unexpected exception
+            ruleMetrics.error("combine_rules", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null); // Handle other unexpected exceptions
         }
     }
@@ -116,9 +174,152 @@ public ResponseEntity<Object> evaluateRule(@RequestBody Map<String, Object> payl
     // New GET method to retrieve rules
     @GetMapping  // This maps to GET requests at /api/rules
     public ResponseEntity<List<Node>> getRules() {
-        // Sample logic to retrieve rules; replace with actual implementation
-        List<Node> rules = List.of();  // Replace with your actual logic to fetch rules
+        List<Node> rules = ruleRegistry.list().stream().map(RegisteredRule::rule).toList();
         return ResponseEntity.ok(rules);
     }
-    
+
+    // Endpoint to register a rule, given either as a rule string ("rule") or a JSON structure ("rules")
+    @PostMapping
+    public ResponseEntity<Object> registerRule(@RequestBody Map<String, Object> payload) {
+        try {
+            Node rule = ruleMetrics.parse("payload", () -> RuleEngine.createRuleFromPayload(payload));
+            RegisteredRule registered = ruleRegistry.register(rule);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", registered.id(), "version", registered.version()));
+        } catch (IllegalArgumentException e) {
+            ruleMetrics.error("register_rule", e);
+            return ResponseEntity.badRequest().body("Invalid rule: " + e.getMessage());
+        } catch (ClassCastException e) {
+            ruleMetrics.error("register_rule", e);
+            return ResponseEntity.badRequest().body("Invalid payload structure: " + e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            ruleMetrics.error("register_rule", e);
+            return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).body(e.getMessage());
+        }
+    }
+
+    // Endpoint to replace a registered rule with a new version
+    @PutMapping("/{id}")
+    public ResponseEntity<Object> updateRule(@PathVariable String id, @RequestBody Map<String, Object> payload) {
+        try {
+            Node rule = ruleMetrics.parse("payload", () -> RuleEngine.createRuleFromPayload(payload));
+            return ruleRegistry.update(id, rule)
+                    .<ResponseEntity<Object>>map(updated -> ResponseEntity.ok(Map.of("id", updated.id(), "version", updated.version())))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            ruleMetrics.error("update_rule", e);
+            return ResponseEntity.badRequest().body("Invalid rule: " + e.getMessage());
+        } catch (ClassCastException e) {
+            ruleMetrics.error("update_rule", e);
+            return ResponseEntity.badRequest().body("Invalid payload structure: " + e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            ruleMetrics.error("update_rule", e);
+            return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RegisteredRule> getRule(@PathVariable String id) {
+        return ruleRegistry.get(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable String id) {
+        try {
+            return ruleRegistry.remove(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (UnsupportedOperationException e) {
+            ruleMetrics.error("delete_rule", e);
+            return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).build();
+        }
+    }
+
+    // Endpoint to download every registered rule as a rule pack, to be served with ruleengine.rule-pack.path
+    @GetMapping("/pack")
+    public void getRulePack(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"rules.rpak\"");
+        RulePack.write(response.getOutputStream(), ruleRegistry.list());
+    }
+
+    // Endpoint to evaluate a registered rule by id; the compiled form comes from the cache and, unless the
+    // evaluation is traced, repeated inputs are answered from the result cache
+    @PostMapping("/{id}/evaluate")
+    public ResponseEntity<Object> evaluateRegisteredRule(@PathVariable String id, @RequestBody Map<String, Object> payload,
+                                                         @RequestParam(defaultValue = "false") boolean explain) {
+        Map<String, Object> data = RuleEngine.toData(payload.get("data"));
+        if (data == null) {
+            return ResponseEntity.badRequest().body("Missing required field: 'data'");
+        }
+
+        try {
+            return ruleRegistry.getMemoized(id)
+                    .<ResponseEntity<Object>>map(rule -> {
+                        EvaluationTracing.TracedResult result = ruleMetrics.evaluate(id,
+                                () -> evaluationTracing.evaluate(id, rule, data, explain));
+                        return ResponseEntity.ok(explain ? result : result.result());
+                    })
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            ruleMetrics.error("evaluate_registered_rule", e);
+            return ResponseEntity.badRequest().body("Invalid rule: " + e.getMessage());
+        } catch (ClassCastException e) {
+            ruleMetrics.error("evaluate_registered_rule", e);
+            return ResponseEntity.badRequest().body("Invalid payload structure: " + e.getMessage());
+        }
+    }
+
+    // Endpoint to evaluate a registered rule against a JSON array or NDJSON stream of records
+    @PostMapping(value = "/{id}/evaluate_batch", produces = NDJSON)
+    public void evaluateRegisteredBatch(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        CompiledRule rule;
+        try {
+            rule = ruleRegistry.getCompiled(id).orElse(null);
+        } catch (IllegalArgumentException e) {
+            writeBadRequest(response, "Invalid rule: " + e.getMessage());
+            return;
+        }
+        if (rule == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            try {
+                parser.nextToken();
+            } catch (JsonProcessingException e) {
+                writeBadRequest(response, "Malformed batch input: " + e.getOriginalMessage());
+                return;
+            }
+            response.setContentType(NDJSON);
+            batchEvaluator.evaluate(rule, parser, response.getOutputStream());
+        }
+    }
+
+    // Endpoint returning the ids of every registered rule the record matches
+    @PostMapping("/match")
+    public ResponseEntity<Object> matchRules(@RequestBody Map<String, Object> payload) {
+        Map<String, Object> data = RuleEngine.toData(payload.get("data"));
+        if (data == null) {
+            return ResponseEntity.badRequest().body("Missing required field: 'data'");
+        }
+        return ResponseEntity.ok(ruleMetrics.match(() -> ruleRegistry.getMatcher().match(data)));
+    }
+
+    // Endpoint exposing compiled rule cache statistics
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CompiledRuleCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(ruleRegistry.cacheStats());
+    }
+
+    // Endpoint exposing evaluation result cache statistics
+    @GetMapping("/cache/results")
+    public ResponseEntity<ResultCache.Stats> getResultCacheStats() {
+        return ResponseEntity.ok(ruleRegistry.resultStats());
+    }
+
+    // Helper method to report a rejected streaming request before any output is written
+    private static void writeBadRequest(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
 }
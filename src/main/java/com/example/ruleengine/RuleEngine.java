@@ -1,10 +1,11 @@
 package com.example.ruleengine;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -31,7 +32,7 @@ public class RuleEngine {
                     combinedNode = ruleNode;
                 } else {
                     // Combine rules using AND or OR operator (modify as needed)
-                    combinedNode = new Node("operator", "AND", combinedNode, ruleNode);
+                    combinedNode = Node.operator("AND", combinedNode, ruleNode);
                 }
             }
             return combinedNode;
@@ -43,17 +44,38 @@ public class RuleEngine {
         }
     }
     
+    // Method to create a rule from a request payload holding either a rule string ("rule") or a JSON structure ("rules")
+    public static Node createRuleFromPayload(Map<String, Object> payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload cannot be null");
+        }
+        if (payload.get("rule") instanceof String ruleString && !ruleString.trim().isEmpty()) {
+            return createRule(ruleString);
+        }
+        return createRuleFromJson(payload);
+    }
+
+    // Record data from a JSON value: a copy of the object keyed by field name, or null if it is not an object
+    public static Map<String, Object> toData(Object value) {
+        if (!(value instanceof Map<?, ?> object)) {
+            return null;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        object.forEach((field, fieldValue) -> data.put(String.valueOf(field), fieldValue));
+        return data;
+    }
+
     // Helper method to process individual rules
     private static Node processRule(Map<String, Object> rule) {
         Map<String, Object> leftOperand = getOperand(rule, "left");
         Map<String, Object> rightOperand = getOperand(rule, "right");
     
-        Node leftNode = new Node("operand", (String) leftOperand.get("operand"), null, null);
-        Node rightNode = new Node("operand", (String) rightOperand.get("operand"), null, null);
+        Node leftNode = Node.operand((String) leftOperand.get("operand"));
+        Node rightNode = Node.operand((String) rightOperand.get("operand"));
     
         String operator = (String) rule.get("operator");
     
-        return new Node("operator", operator, leftNode, rightNode);
+        return Node.operator(operator, leftNode, rightNode);
     }
 
 
@@ -69,7 +91,7 @@ public class RuleEngine {
     // Helper method to create operand nodes
     private static Node createOperandNode(Map<String, Object> operandMap) {
         String condition = (String) operandMap.get("operand");
-        return new Node("operand", condition, null, null);
+        return Node.operand(condition);
     }
 
     // Method to parse the rules from JSON (Jackson's JsonNode)
@@ -88,45 +110,14 @@ public class RuleEngine {
         return createRule(condition);
     }
 
-    // Method to create a rule from a string
+    // Method to create a rule (AST) from a rule string such as "(age > 30 AND department = 'Sales') OR NOT salary < 50000"
     public static Node createRule(String ruleString) {
-        // Split the string into tokens while keeping logical operators (AND/OR) intact
-        String[] tokens = ruleString.split("\\s+(AND|OR)\\s+");
-
-        Stack<Node> stack = new Stack<>();
-        Node lastOperand = null;
-
-        for (String token : tokens) {
-            token = token.trim();  // Trim spaces around each token
-
-            // Check if it's a logical operator
-            if (token.equals("AND") || token.equals("OR")) {
-                if (lastOperand == null || stack.isEmpty()) {
-                    throw new IllegalArgumentException("Not enough operands before operator: " + token);
-                }
-                Node leftOperand = stack.pop();
-                stack.push(new Node("operator", token, leftOperand, lastOperand));
-                lastOperand = null;  // Reset for the next operand
-            } else if (token.matches(".*(=|>|<).*")) {  // If token is an operand (like 'age > 30')
-                lastOperand = new Node("operand", token, null, null);
-            } else {
-                throw new IllegalArgumentException("Invalid token format: " + token);
-            }
-        }
-
-        // There should be exactly one node remaining in the stack (the root of the AST)
-        if (stack.isEmpty() && lastOperand != null) {
-            return lastOperand;
-        } else if (stack.size() == 1 && lastOperand == null) {
-            return stack.pop();
-        } else {
-            throw new IllegalArgumentException("Invalid rule expression: " + ruleString);
-        }
+        return RuleParser.parse(ruleString);
     }
 
     // Method to combine two rules with a logical operator
     public static Node combineRules(Node rule1, Node rule2, String operator) {
-        return new Node("operator", operator, rule1, rule2);
+        return Node.operator(operator, rule1, rule2);
     }
 
     // Method to combine a list of rules with a logical operator
@@ -146,62 +137,107 @@ public class RuleEngine {
         return combinedNode;
     }
 
-    // Method to evaluate the rule tree against provided data
-    public static boolean evaluateRule(Node node, Map<String, Object> data) {
-        if (node.getNodeType().equals("operand")) {
-            System.out.println("Evaluating operand: " + node.getValue());
-            Pattern pattern = Pattern.compile("(\\w+)\\s*(=|>|<)\\s*['\"]?([^'\"]+)['\"]?");
-            Matcher matcher = pattern.matcher(node.getValue());
-
-            if (!matcher.matches()) {
-                throw new IllegalArgumentException("Invalid operand format: " + node.getValue());
-            }
-
-            String field = matcher.group(1);
-            String operator = matcher.group(2);
-            String value = matcher.group(3).trim();
-
-            Object dataValue = data.get(field);
-            if (dataValue instanceof String) {
-                value = value.replace("'", "").replace("\"", "");
-                switch (operator) {
-                    case "=" -> {
-                        return dataValue.equals(value);
-                    }
-                    default -> throw new IllegalArgumentException("Invalid operator for String: " + operator);
-                }
-            } else if (dataValue instanceof Number) {
-                double numericValue = Double.parseDouble(value);  // Convert string value to numeric
-                double dataNumericValue = ((Number) dataValue).doubleValue(); // Convert data value to numeric
-
-                switch (operator) {
-                    case ">" -> {
-                        return dataNumericValue > numericValue;
-                    }
-                    case "<" -> {
-                        return dataNumericValue < numericValue;
-                    }
-                    case "=" -> {
-                        return dataNumericValue == numericValue;
-                    }
-                    default -> throw new IllegalArgumentException("Unknown operator: " + operator);
-                }
-            } else {
-                throw new IllegalArgumentException("Unsupported data type for field: " + field);
+    // Method to compile a rule tree into its executable form; operands are parsed exactly once here
+    public static CompiledRule compile(Node node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Rule node cannot be null");
+        }
+        if (node.getType() == NodeType.OPERAND) {
+            return compileOperand(node.getValue());
+        } else if (node.getType() == NodeType.OPERATOR) {
+            if ("NOT".equals(node.getValue())) {
+                return new CompiledRule.Not(compile(node.getLeft()));
             }
-        } else if (node.getNodeType().equals("operator")) {
-            boolean leftResult = evaluateRule(node.getLeft(), data);
-            boolean rightResult = evaluateRule(node.getRight(), data);
-            switch (node.getValue()) {
+            switch (String.valueOf(node.getValue())) {
                 case "AND" -> {
-                    return leftResult && rightResult;
+                    return new CompiledRule.And(compileChain(node));
                 }
                 case "OR" -> {
-                    return leftResult || rightResult;
+                    return new CompiledRule.Or(compileChain(node));
                 }
                 default -> throw new IllegalArgumentException("Unknown operator: " + node.getValue());
             }
         }
-        return false;
+        throw new IllegalArgumentException("Unknown node type: " + node.getNodeType());
+    }
+
+    // Helper method to compile a chain of nodes with the same operator into the children of one n-ary node,
+    // left to right. The chain is walked with an explicit stack, so "a AND b AND ... AND z" built by
+    // combineRules compiles (and later evaluates) without recursing once per condition.
+    private static CompiledRule[] compileChain(Node node) {
+        List<CompiledRule> children = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.pop();
+            if (current.getType() == NodeType.OPERATOR && node.getValue().equals(current.getValue())) {
+                if (current.getLeft() == null || current.getRight() == null) {
+                    throw new IllegalArgumentException("Rule node cannot be null");
+                }
+                pending.push(current.getRight());
+                pending.push(current.getLeft());
+            } else {
+                children.add(compile(current));
+            }
+        }
+        return children.toArray(new CompiledRule[0]);
+    }
+
+    // Helper method to compile an operand string; operands holding a whole expression
+    // (for example "department IN ('Sales', 'HR')" from a JSON rule) are parsed and compiled as a subtree
+    private static CompiledRule compileOperand(String operand) {
+        Node parsed = RuleParser.parse(operand);
+        if (parsed.getType() == NodeType.OPERAND) {
+            return RuleParser.parseComparison(parsed.getValue());
+        }
+        return compile(parsed);
+    }
+
+    // Method to bind a compiled rule to a schema, resolving every field to its slot
+    public static SchemaRule compile(CompiledRule rule, RecordSchema schema) {
+        CompiledRule interpreted = interpreted(rule);
+        if (interpreted instanceof CompiledRule.Comparison comparison) {
+            return new SchemaRule.Comparison(schema.slot(comparison.field()), comparison.field(), comparison.operator(),
+                    comparison.literal().intern(), comparison.number(), comparison.numeric());
+        } else if (interpreted instanceof CompiledRule.And and) {
+            return new SchemaRule.And(compileAll(and.children(), schema));
+        } else if (interpreted instanceof CompiledRule.Or or) {
+            return new SchemaRule.Or(compileAll(or.children(), schema));
+        } else if (interpreted instanceof CompiledRule.Not not) {
+            return new SchemaRule.Not(compile(not.child(), schema));
+        } else if (interpreted instanceof CompiledRule.Constant constant) {
+            return new SchemaRule.Constant(constant.value());
+        }
+        throw new IllegalArgumentException("Unsupported rule type: " + interpreted.getClass().getSimpleName());
+    }
+
+    private static SchemaRule[] compileAll(CompiledRule[] rules, RecordSchema schema) {
+        SchemaRule[] compiled = new SchemaRule[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            compiled[i] = compile(rules[i], schema);
+        }
+        return compiled;
+    }
+
+    // Interpreted tree behind a tiered, generated or memoized rule
+    static CompiledRule interpreted(CompiledRule rule) {
+        if (rule instanceof TieredRule tiered) {
+            return tiered.getInterpreted();
+        } else if (rule instanceof MethodHandleCompiler.GeneratedRule generated) {
+            return interpreted(generated.source());
+        } else if (rule instanceof ResultCache.MemoizedRule memoized) {
+            return interpreted(memoized.rule());
+        }
+        return rule;
+    }
+
+    // Method to evaluate the rule tree against provided data
+    public static boolean evaluateRule(Node node, Map<String, Object> data) {
+        return evaluateRule(compile(node), data);
+    }
+
+    // Method to evaluate an already compiled rule against provided data
+    public static boolean evaluateRule(CompiledRule rule, Map<String, Object> data) {
+        return rule.evaluate(data);
     }
 }
@@ -0,0 +1,74 @@
+package com.example.ruleengine;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+// RuleEntity.java
+// One row per rule. The whole tree is stored as flat JSON (see JpaRuleStore), so loading a rule is a
+// single row read no matter how many nodes it has.
+@Entity
+@Table(name = "rule_definition")
+public class RuleEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Lob
+    @Column(nullable = false)
+    private String ast;
+
+    // Evaluations recorded so far, used to pick the rules to pre-compile at startup
+    @Column(nullable = false)
+    private long evaluationCount;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    protected RuleEntity() {
+        // Required by JPA
+    }
+
+    public RuleEntity(String ast) {
+        this.version = 1;
+        this.ast = ast;
+        this.updatedAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getAst() {
+        return ast;
+    }
+
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    // Replace the stored tree with a new version
+    public void replaceAst(String ast) {
+        this.ast = ast;
+        this.version++;
+        this.updatedAt = Instant.now();
+    }
+}
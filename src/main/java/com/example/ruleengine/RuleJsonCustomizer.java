@@ -0,0 +1,22 @@
+package com.example.ruleengine;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+
+// RuleJsonCustomizer.java
+// Rule trees are rendered as nested JSON, one level per link of an AND/OR chain, and the parser accepts
+// chains of any length. Jackson's default output nesting limit (1000) would turn a rule that was
+// accepted and evaluates fine into a failed response, so output nesting is not limited. Node writes
+// itself without recursion. Input keeps Jackson's default limits.
+@Component
+public class RuleJsonCustomizer implements Jackson2ObjectMapperBuilderCustomizer {
+
+    @Override
+    public void customize(Jackson2ObjectMapperBuilder builder) {
+        builder.postConfigurer(mapper -> mapper.getFactory().setStreamWriteConstraints(
+                StreamWriteConstraints.builder().maxNestingDepth(Integer.MAX_VALUE).build()));
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// RuleMatcher.java
+// Answers "which registered rules does this record match?" in one pass. Identical operand conditions
+// are shared across all rules and indexed per field: string and numeric equality by hash lookup, ">" and
+// "<" by binary search over sorted thresholds. Each distinct condition is decided once per record, then
+// the rules are resolved from those outcomes without touching the record again.
+//
+// Rules are laid out as a graph of cells like EvaluationSession: one cell per distinct condition and one
+// per distinct AND/OR/NOT, children before parents. Every cell's outcome with all conditions false is
+// worked out once at build time. A record then only recomputes the cells above the conditions it makes
+// true or failing, so a match costs the conditions it decides plus the cells they reach, not one walk
+// per rule (beyond copying the default outcomes). Rules that hold with every condition false, such as
+// negations, are marked at build time and reported unless a decided condition changes their outcome.
+//
+// Outcomes are tri-state so that matching keeps the semantics of RuleEngine.evaluateRule: a condition
+// that would throw (missing field, wrong type) is an error, and a rule that reaches it is reported as
+// failed rather than matched.
+public final class RuleMatcher {
+
+    private static final byte FALSE = 0;
+    private static final byte TRUE = 1;
+    private static final byte ERROR = 2;
+
+    // Result of matching one record against every rule
+    public record MatchResult(List<String> matches, Map<String, String> errors) {
+    }
+
+    // Sorted thresholds of one range operator and the condition ids that carry them
+    private record Thresholds(double[] values, int[] conditions) {
+        static Thresholds of(List<CompiledRule.Comparison> comparisons, Map<CompiledRule.Comparison, Integer> ids) {
+            List<CompiledRule.Comparison> sorted = new ArrayList<>(comparisons);
+            sorted.sort((a, b) -> Double.compare(a.number(), b.number()));
+            double[] values = new double[sorted.size()];
+            int[] conditions = new int[sorted.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = sorted.get(i).number();
+                conditions[i] = ids.get(sorted.get(i));
+            }
+            return new Thresholds(values, conditions);
+        }
+
+        // Index of the first threshold that is not strictly below the value
+        int firstAtLeast(double value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Index of the first threshold strictly above the value
+        int firstAbove(double value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // All distinct conditions that test one field
+    private static final class FieldIndex {
+        private final String field;
+        private final int[] allConditions;
+        private final Map<String, int[]> stringEquals = new HashMap<>();
+        private final Map<String, int[]> stringNotEquals = new HashMap<>();
+        private final int[] allStringNotEquals;
+        private final Map<Double, int[]> numberEquals = new HashMap<>();
+        private final Map<Double, int[]> numberNotEquals = new HashMap<>();
+        private final int[] allNumberNotEquals;
+        private final Thresholds greaterThan;
+        private final Thresholds greaterOrEqual;
+        private final Thresholds lessThan;
+        private final Thresholds lessOrEqual;
+        private final int[] nonStringConditions;
+        private final int[] nonNumericConditions;
+
+        private FieldIndex(String field, List<CompiledRule.Comparison> comparisons, Map<CompiledRule.Comparison, Integer> ids) {
+            this.field = field;
+            this.allConditions = idsOf(comparisons, ids);
+
+            Map<String, List<CompiledRule.Comparison>> byLiteral = new HashMap<>();
+            Map<String, List<CompiledRule.Comparison>> notByLiteral = new HashMap<>();
+            Map<Double, List<CompiledRule.Comparison>> byNumber = new HashMap<>();
+            Map<Double, List<CompiledRule.Comparison>> notByNumber = new HashMap<>();
+            Map<ComparisonOperator, List<CompiledRule.Comparison>> ranges = new EnumMap<>(ComparisonOperator.class);
+            List<CompiledRule.Comparison> stringNotEquals = new ArrayList<>();
+            List<CompiledRule.Comparison> numberNotEquals = new ArrayList<>();
+            List<CompiledRule.Comparison> nonString = new ArrayList<>();
+            List<CompiledRule.Comparison> nonNumeric = new ArrayList<>();
+            for (CompiledRule.Comparison comparison : comparisons) {
+                switch (comparison.operator()) {
+                    case EQ -> byLiteral.computeIfAbsent(comparison.literal(), key -> new ArrayList<>()).add(comparison);
+                    case NE -> {
+                        notByLiteral.computeIfAbsent(comparison.literal(), key -> new ArrayList<>()).add(comparison);
+                        stringNotEquals.add(comparison);
+                    }
+                    default -> nonString.add(comparison);
+                }
+                if (!comparison.numeric()) {
+                    nonNumeric.add(comparison);
+                    continue;
+                }
+                if (comparison.operator() == ComparisonOperator.NE) {
+                    numberNotEquals.add(comparison);
+                }
+                if (Double.isNaN(comparison.number())) {
+                    continue;  // Only "!=" can be true against NaN, and it always is
+                }
+                switch (comparison.operator()) {
+                    case EQ -> byNumber.computeIfAbsent(normalize(comparison.number()), key -> new ArrayList<>()).add(comparison);
+                    case NE -> notByNumber.computeIfAbsent(normalize(comparison.number()), key -> new ArrayList<>()).add(comparison);
+                    default -> ranges.computeIfAbsent(comparison.operator(), key -> new ArrayList<>()).add(comparison);
+                }
+            }
+
+            byLiteral.forEach((literal, matches) -> this.stringEquals.put(literal, idsOf(matches, ids)));
+            notByLiteral.forEach((literal, matches) -> this.stringNotEquals.put(literal, idsOf(matches, ids)));
+            byNumber.forEach((number, matches) -> this.numberEquals.put(number, idsOf(matches, ids)));
+            notByNumber.forEach((number, matches) -> this.numberNotEquals.put(number, idsOf(matches, ids)));
+            this.allStringNotEquals = idsOf(stringNotEquals, ids);
+            this.allNumberNotEquals = idsOf(numberNotEquals, ids);
+            this.greaterThan = Thresholds.of(ranges.getOrDefault(ComparisonOperator.GT, List.of()), ids);
+            this.greaterOrEqual = Thresholds.of(ranges.getOrDefault(ComparisonOperator.GE, List.of()), ids);
+            this.lessThan = Thresholds.of(ranges.getOrDefault(ComparisonOperator.LT, List.of()), ids);
+            this.lessOrEqual = Thresholds.of(ranges.getOrDefault(ComparisonOperator.LE, List.of()), ids);
+            this.nonStringConditions = idsOf(nonString, ids);
+            this.nonNumericConditions = idsOf(nonNumeric, ids);
+        }
+
+        // Decide every condition on this field, marking the ones set in decided; returns an error message if
+        // any condition failed. Conditions that are not set stay false.
+        private String decide(Object value, byte[] outcomes, BitSet decided) {
+            if (value instanceof String stringValue) {
+                setAll(outcomes, decided, allStringNotEquals, TRUE);
+                setAll(outcomes, decided, stringNotEquals.get(stringValue), FALSE);
+                setAll(outcomes, decided, stringEquals.get(stringValue), TRUE);
+                setAll(outcomes, decided, nonStringConditions, ERROR);
+                return nonStringConditions.length > 0 ? "Invalid operator for String on field: " + field : null;
+            }
+            if (value instanceof Number numberValue) {
+                double number = numberValue.doubleValue();
+                setAll(outcomes, decided, allNumberNotEquals, TRUE);
+                if (!Double.isNaN(number)) {
+                    setAll(outcomes, decided, numberNotEquals.get(normalize(number)), FALSE);
+                    setAll(outcomes, decided, numberEquals.get(normalize(number)), TRUE);
+                    setRange(outcomes, decided, greaterThan.conditions(), 0, greaterThan.firstAtLeast(number));
+                    setRange(outcomes, decided, greaterOrEqual.conditions(), 0, greaterOrEqual.firstAbove(number));
+                    setRange(outcomes, decided, lessThan.conditions(), lessThan.firstAbove(number), lessThan.conditions().length);
+                    setRange(outcomes, decided, lessOrEqual.conditions(), lessOrEqual.firstAtLeast(number), lessOrEqual.conditions().length);
+                }
+                setAll(outcomes, decided, nonNumericConditions, ERROR);
+                return nonNumericConditions.length > 0 ? "Non-numeric literal compared with number on field: " + field : null;
+            }
+            setAll(outcomes, decided, allConditions, ERROR);
+            return "Unsupported data type for field: " + field;
+        }
+
+        // Mark conditions[from, to) as true
+        private static void setRange(byte[] outcomes, BitSet decided, int[] conditions, int from, int to) {
+            for (int i = from; i < to; i++) {
+                outcomes[conditions[i]] = TRUE;
+                decided.set(conditions[i]);
+            }
+        }
+
+        private static void setAll(byte[] outcomes, BitSet decided, int[] conditions, byte outcome) {
+            if (conditions != null) {
+                for (int condition : conditions) {
+                    outcomes[condition] = outcome;
+                    decided.set(condition);
+                }
+            }
+        }
+
+        private static int[] idsOf(List<CompiledRule.Comparison> comparisons, Map<CompiledRule.Comparison, Integer> ids) {
+            return comparisons.stream().mapToInt(ids::get).distinct().toArray();
+        }
+
+        // Treat -0.0 and 0.0 as the same key, as == does
+        private static Double normalize(double number) {
+            return number == 0.0 ? 0.0 : number;
+        }
+    }
+
+    private static final byte COMPARISON = 0;
+    private static final byte ALL = 1;
+    private static final byte ANY = 2;
+    private static final byte NEGATION = 3;
+
+    // Composite cell identity, so identical subtrees of different rules share one cell
+    private record Composite(byte kind, List<Integer> children) {
+    }
+
+    private final String[] ruleIds;
+    private final int[] ruleCells;
+    private final byte[] kinds;
+    private final int[][] children;
+    private final int[][] parents;
+    private final int[][] rulesOfCell;
+    private final byte[] defaults;
+    private final BitSet defaultMatches;
+    private final FieldIndex[] fields;
+    private final int[] conditionFields;
+    private final int conditionCount;
+
+    private RuleMatcher(String[] ruleIds, int[] ruleCells, List<Byte> kindList, List<int[]> childList,
+                        FieldIndex[] fields, int[] conditionFields, int conditionCount) {
+        int cellCount = kindList.size();
+        this.ruleIds = ruleIds;
+        this.ruleCells = ruleCells;
+        this.kinds = new byte[cellCount];
+        this.children = childList.toArray(new int[0][]);
+        this.fields = fields;
+        this.conditionFields = conditionFields;
+        this.conditionCount = conditionCount;
+
+        int[] parentCounts = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            kinds[cell] = kindList.get(cell);
+            for (int child : children[cell]) {
+                parentCounts[child]++;
+            }
+        }
+        this.parents = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            parents[cell] = new int[parentCounts[cell]];
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int child : children[cell]) {
+                parents[child][--parentCounts[child]] = cell;
+            }
+        }
+        this.rulesOfCell = new int[cellCount][];
+        for (int rule = 0; rule < ruleCells.length; rule++) {
+            int[] current = rulesOfCell[ruleCells[rule]];
+            int[] extended = current == null ? new int[1] : Arrays.copyOf(current, current.length + 1);
+            extended[extended.length - 1] = rule;
+            rulesOfCell[ruleCells[rule]] = extended;
+        }
+
+        // Outcome of every cell when no condition is true; conditions default to FALSE
+        this.defaults = new byte[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (kinds[cell] != COMPARISON) {
+                defaults[cell] = combine(cell, defaults);
+            }
+        }
+        this.defaultMatches = new BitSet(ruleCells.length);
+        for (int rule = 0; rule < ruleCells.length; rule++) {
+            defaultMatches.set(rule, defaults[ruleCells[rule]] == TRUE);
+        }
+    }
+
+    // Build a matcher over the given compiled rules, keyed by rule id
+    public static RuleMatcher build(Map<String, CompiledRule> rules) {
+        List<Byte> kinds = new ArrayList<>();
+        List<int[]> children = new ArrayList<>();
+        Map<Object, Integer> cellIds = new HashMap<>();
+        Map<CompiledRule.Comparison, Integer> conditionIds = new LinkedHashMap<>();
+        String[] ruleIds = new String[rules.size()];
+        int[] ruleCells = new int[rules.size()];
+        int index = 0;
+        for (Map.Entry<String, CompiledRule> rule : rules.entrySet()) {
+            ruleIds[index] = rule.getKey();
+            ruleCells[index] = toCell(RuleEngine.interpreted(rule.getValue()), kinds, children, cellIds, conditionIds);
+            index++;
+        }
+
+        Map<String, List<CompiledRule.Comparison>> byField = new LinkedHashMap<>();
+        for (CompiledRule.Comparison comparison : conditionIds.keySet()) {
+            byField.computeIfAbsent(comparison.field(), key -> new ArrayList<>()).add(comparison);
+        }
+        FieldIndex[] fields = new FieldIndex[byField.size()];
+        int[] conditionFields = new int[kinds.size()];
+        int fieldIndex = 0;
+        for (Map.Entry<String, List<CompiledRule.Comparison>> field : byField.entrySet()) {
+            fields[fieldIndex] = new FieldIndex(field.getKey(), field.getValue(), conditionIds);
+            for (CompiledRule.Comparison comparison : field.getValue()) {
+                conditionFields[conditionIds.get(comparison)] = fieldIndex;
+            }
+            fieldIndex++;
+        }
+        return new RuleMatcher(ruleIds, ruleCells, kinds, children, fields, conditionFields, conditionIds.size());
+    }
+
+    // Number of distinct conditions shared by all rules
+    public int getConditionCount() {
+        return conditionCount;
+    }
+
+    public int getRuleCount() {
+        return ruleIds.length;
+    }
+
+    // Match one record against every rule
+    public MatchResult match(Map<String, Object> data) {
+        byte[] outcomes = defaults.clone();
+        BitSet dirty = new BitSet(kinds.length);
+        String[] fieldErrors = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fieldErrors[i] = fields[i].decide(data.get(fields[i].field), outcomes, dirty);
+        }
+
+        // Parents always come after their children, so one ascending sweep settles every reached cell
+        BitSet reached = (BitSet) defaultMatches.clone();
+        for (int cell = dirty.nextSetBit(0); cell >= 0; cell = dirty.nextSetBit(cell + 1)) {
+            if (kinds[cell] != COMPARISON) {
+                outcomes[cell] = combine(cell, outcomes);
+            }
+            if (outcomes[cell] == defaults[cell]) {
+                continue;
+            }
+            for (int parent : parents[cell]) {
+                dirty.set(parent);
+            }
+            if (rulesOfCell[cell] != null) {
+                for (int rule : rulesOfCell[cell]) {
+                    reached.set(rule);
+                }
+            }
+        }
+
+        List<String> matches = new ArrayList<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (int rule = reached.nextSetBit(0); rule >= 0; rule = reached.nextSetBit(rule + 1)) {
+            byte outcome = outcomes[ruleCells[rule]];
+            if (outcome == TRUE) {
+                matches.add(ruleIds[rule]);
+            } else if (outcome == ERROR) {
+                errors.put(ruleIds[rule], errorOf(ruleCells[rule], outcomes, fieldErrors));
+            }
+        }
+        return new MatchResult(matches, errors);
+    }
+
+    // Outcome of a composite cell from its children, with the short-circuit order of evaluateRule
+    private byte combine(int cell, byte[] outcomes) {
+        int[] inputs = children[cell];
+        return switch (kinds[cell]) {
+            case ALL -> firstOther(inputs, TRUE, outcomes);
+            case ANY -> firstOther(inputs, FALSE, outcomes);
+            default -> outcomes[inputs[0]] == ERROR ? ERROR : (outcomes[inputs[0]] == TRUE ? FALSE : TRUE);
+        };
+    }
+
+    // Outcome of the first child that is not the given one, which decides an AND (TRUE) or OR (FALSE)
+    private static byte firstOther(int[] inputs, byte passing, byte[] outcomes) {
+        for (int input : inputs) {
+            if (outcomes[input] != passing) {
+                return outcomes[input];
+            }
+        }
+        return passing;
+    }
+
+    // Message of the failing condition that decided a failed cell; only runs for failed rules
+    private String errorOf(int cell, byte[] outcomes, String[] fieldErrors) {
+        while (kinds[cell] != COMPARISON) {
+            if (kinds[cell] == NEGATION) {
+                cell = children[cell][0];
+                continue;
+            }
+            byte passing = kinds[cell] == ALL ? TRUE : FALSE;
+            for (int input : children[cell]) {
+                if (outcomes[input] != passing) {
+                    cell = input;
+                    break;
+                }
+            }
+        }
+        return fieldErrors[conditionFields[cell]];
+    }
+
+    // Add the cells of a rule children first, assigning each distinct comparison a shared id, and return
+    // the cell of its root
+    private static int toCell(CompiledRule rule, List<Byte> kinds, List<int[]> children, Map<Object, Integer> cellIds,
+                              Map<CompiledRule.Comparison, Integer> conditionIds) {
+        if (rule instanceof CompiledRule.Comparison comparison) {
+            Integer id = conditionIds.get(comparison);
+            if (id == null) {
+                id = addCell(COMPARISON, new int[0], kinds, children);
+                conditionIds.put(comparison, id);
+            }
+            return id;
+        }
+        byte kind;
+        CompiledRule[] inputs;
+        if (rule instanceof CompiledRule.Constant constant) {
+            kind = constant.value() ? ALL : ANY;  // With no children an AND is always true, an OR always false
+            inputs = new CompiledRule[0];
+        } else if (rule instanceof CompiledRule.And and) {
+            kind = ALL;
+            inputs = and.children();
+        } else if (rule instanceof CompiledRule.Or or) {
+            kind = ANY;
+            inputs = or.children();
+        } else if (rule instanceof CompiledRule.Not not) {
+            kind = NEGATION;
+            inputs = new CompiledRule[] { not.child() };
+        } else {
+            throw new IllegalArgumentException("Unsupported rule type: " + rule.getClass().getSimpleName());
+        }
+        int[] inputCells = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputCells[i] = toCell(inputs[i], kinds, children, cellIds, conditionIds);
+        }
+        Composite key = new Composite(kind, Arrays.stream(inputCells).boxed().toList());
+        return cellIds.computeIfAbsent(key, ignored -> addCell(kind, inputCells, kinds, children));
+    }
+
+    private static int addCell(byte kind, int[] inputs, List<Byte> kinds, List<int[]> children) {
+        kinds.add(kind);
+        children.add(inputs);
+        return kinds.size() - 1;
+    }
+}
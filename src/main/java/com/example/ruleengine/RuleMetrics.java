@@ -0,0 +1,132 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// RuleMetrics.java
+// Micrometer instrumentation for parsing, compiling and evaluating rules. Per-rule evaluation timers are
+// tagged with the rule id for the first ruleengine.metrics.max-rule-tags ids seen; every other rule shares
+// the "other" tag, so the number of series stays bounded however many rules are registered.
+// Timers publish histogram buckets besides their local percentiles, so backends that support them can
+// aggregate latency across instances.
+@Component
+public class RuleMetrics {
+
+    public static final String AD_HOC_RULE = "adhoc";
+    private static final String OTHER_RULES = "other";
+
+    private final MeterRegistry registry;
+    private final int maxRuleTags;
+    private final Map<String, Timer> evaluationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> parseTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Timer compileTimer;
+    private final Timer matchTimer;
+
+    public RuleMetrics(MeterRegistry registry, RuleRegistry ruleRegistry,
+                       @Value("${ruleengine.metrics.max-rule-tags:100}") int maxRuleTags) {
+        this.registry = registry;
+        this.maxRuleTags = maxRuleTags;
+        this.compileTimer = Timer.builder("ruleengine.compile")
+                .description("Time to compile a rule tree")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.matchTimer = Timer.builder("ruleengine.match")
+                .description("Time to match one record against all registered rules")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+
+        FunctionCounter.builder("ruleengine.cache.hits", ruleRegistry, rules -> rules.cacheStats().hits())
+                .description("Compiled rule cache hits")
+                .register(registry);
+        FunctionCounter.builder("ruleengine.cache.misses", ruleRegistry, rules -> rules.cacheStats().misses())
+                .description("Compiled rule cache misses")
+                .register(registry);
+        FunctionCounter.builder("ruleengine.cache.evictions", ruleRegistry, rules -> rules.cacheStats().evictions())
+                .description("Compiled rule cache evictions")
+                .register(registry);
+        Gauge.builder("ruleengine.cache.hit.ratio", ruleRegistry, rules -> rules.cacheStats().hitRatio())
+                .description("Share of compiled rule lookups served from the cache")
+                .register(registry);
+        Gauge.builder("ruleengine.cache.weight", ruleRegistry, rules -> rules.cacheStats().weight())
+                .description("Total number of nodes held by the compiled rule cache")
+                .register(registry);
+        FunctionTimer.builder("ruleengine.cache.compile", ruleRegistry,
+                        rules -> rules.cacheStats().misses(), rules -> rules.cacheStats().compileNanos(), TimeUnit.NANOSECONDS)
+                .description("Compilations performed on cache misses")
+                .register(registry);
+        FunctionCounter.builder("ruleengine.results.hits", ruleRegistry, rules -> rules.resultStats().hits())
+                .description("Evaluations served from the result cache")
+                .register(registry);
+        FunctionCounter.builder("ruleengine.results.misses", ruleRegistry, rules -> rules.resultStats().misses())
+                .description("Evaluations that ran the rule")
+                .register(registry);
+        Gauge.builder("ruleengine.results.hit.ratio", ruleRegistry, rules -> rules.resultStats().hitRatio())
+                .description("Share of evaluations served from the result cache")
+                .register(registry);
+    }
+
+    // Time parsing of a rule; source is "string" for rule text and "json" for JSON structures
+    public <T> T parse(String source, Supplier<T> parser) {
+        return parseTimers.computeIfAbsent(source, key -> Timer.builder("ruleengine.parse")
+                .description("Time to parse a rule into a tree")
+                .tag("source", key)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry)).record(parser);
+    }
+
+    public CompiledRule compile(Node rule) {
+        return compileTimer.record(() -> RuleEngine.compile(rule));
+    }
+
+    // Time one evaluation of a rule, tagged with its id (or AD_HOC_RULE for rules sent inline)
+    public <T> T evaluate(String ruleId, Supplier<T> evaluation) {
+        return evaluationTimer(ruleId).record(evaluation);
+    }
+
+    public <T> T match(Supplier<T> matching) {
+        return matchTimer.record(matching);
+    }
+
+    // Count a failed request by endpoint and by the kind of failure the controller reports
+    public void error(String endpoint, Exception e) {
+        String type = e instanceof ClassCastException ? "invalid_payload"
+                : e instanceof IllegalArgumentException ? "invalid_rule"
+                : e instanceof UnsupportedOperationException ? "read_only"
+                : "unexpected";
+        errorCounters.computeIfAbsent(endpoint + "|" + type, key -> Counter.builder("ruleengine.errors")
+                .description("Failed rule requests")
+                .tag("endpoint", endpoint)
+                .tag("type", type)
+                .register(registry)).increment();
+    }
+
+    private Timer evaluationTimer(String ruleId) {
+        Timer timer = evaluationTimers.get(ruleId);
+        if (timer != null) {
+            return timer;
+        }
+        String tag = evaluationTimers.size() < maxRuleTags ? ruleId : OTHER_RULES;
+        return evaluationTimers.computeIfAbsent(tag, key -> Timer.builder("ruleengine.evaluate")
+                .description("Time to evaluate one rule against one record")
+                .tag("rule", key)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
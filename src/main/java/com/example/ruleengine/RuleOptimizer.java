@@ -0,0 +1,303 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// RuleOptimizer.java
+// Rewrites compiled rules between compile and evaluate.
+//
+// optimize(rule) only applies rewrites that never change a result or an error message:
+//   - nested AND/OR nodes of the same kind are flattened into one n-ary node, NOT NOT x becomes x
+//   - a condition repeated later in the same AND/OR is dropped
+//   - a later condition implied by an earlier one on the same field is dropped
+//     ("age > 40 AND age > 30" -> "age > 40", "age > 40 OR age > 50" -> "age > 40")
+//   - adjacent range conditions with the same operator are merged ("age > 30 AND age > 40" -> "age > 40")
+//
+// optimize(rule, profile) also treats numeric conditions purely as ranges: it drops implied conditions
+// wherever they are, folds contradictions ("age > 40 AND age < 30") to false, and reorders AND/OR
+// children so cheap, selective conditions run first using observed pass rates. A record that cannot
+// be evaluated (missing field, wrong type) may then report a different error, or a result instead.
+public final class RuleOptimizer {
+
+    // Pass rate assumed for conditions the profile has not seen yet
+    private static final double UNKNOWN_PASS_RATE = 0.5;
+
+    // Estimated cost and probability of being true of a rewritten subtree
+    private record Plan(CompiledRule rule, double cost, double passRate) {
+    }
+
+    // Numbers for which a condition is true, as an interval with open or closed ends
+    private record Interval(double low, boolean lowClosed, double high, boolean highClosed) {
+
+        // Interval of an =, >, >=, < or <= condition with a numeric literal; null for != and NaN literals
+        static Interval of(CompiledRule.Comparison comparison) {
+            double number = comparison.number();
+            if (!comparison.numeric() || Double.isNaN(number)) {
+                return null;
+            }
+            return switch (comparison.operator()) {
+                case EQ -> new Interval(number, true, number, true);
+                case GT -> new Interval(number, false, Double.POSITIVE_INFINITY, true);
+                case GE -> new Interval(number, true, Double.POSITIVE_INFINITY, true);
+                case LT -> new Interval(Double.NEGATIVE_INFINITY, true, number, false);
+                case LE -> new Interval(Double.NEGATIVE_INFINITY, true, number, true);
+                case NE -> null;
+            };
+        }
+
+        boolean contains(double value) {
+            return (value > low || (lowClosed && value == low)) && (value < high || (highClosed && value == high));
+        }
+
+        boolean within(Interval other) {
+            boolean lowInside = low > other.low || (low == other.low && (other.lowClosed || !lowClosed));
+            boolean highInside = high < other.high || (high == other.high && (other.highClosed || !highClosed));
+            return lowInside && highInside;
+        }
+
+        boolean disjoint(Interval other) {
+            double lower = Math.max(low, other.low);
+            double upper = Math.min(high, other.high);
+            if (lower != upper) {
+                return lower > upper;
+            }
+            return !(contains(lower) && other.contains(lower));
+        }
+    }
+
+    private RuleOptimizer() {
+    }
+
+    // Rewrites that keep every result and error exactly as before
+    public static CompiledRule optimize(CompiledRule rule) {
+        return simplify(RuleEngine.interpreted(rule), false);
+    }
+
+    // Range folding and selectivity-based reordering on top of the exact rewrites
+    public static CompiledRule optimize(CompiledRule rule, SelectivityProfile profile) {
+        return plan(simplify(RuleEngine.interpreted(rule), true), profile).rule();
+    }
+
+    private static CompiledRule simplify(CompiledRule rule, boolean ranges) {
+        if (rule instanceof CompiledRule.And and) {
+            return simplifyJunction(and.children(), true, ranges);
+        } else if (rule instanceof CompiledRule.Or or) {
+            return simplifyJunction(or.children(), false, ranges);
+        } else if (rule instanceof CompiledRule.Not not) {
+            CompiledRule child = simplify(not.child(), ranges);
+            if (child instanceof CompiledRule.Not inner) {
+                return inner.child();
+            } else if (child instanceof CompiledRule.Constant constant) {
+                return CompiledRule.Constant.of(!constant.value());
+            }
+            return new CompiledRule.Not(child);
+        }
+        return rule;
+    }
+
+    private static CompiledRule simplifyJunction(CompiledRule[] children, boolean and, boolean ranges) {
+        List<CompiledRule> flat = new ArrayList<>();
+        for (CompiledRule child : children) {
+            CompiledRule simplified = simplify(child, ranges);
+            if (and && simplified instanceof CompiledRule.And nested) {
+                flat.addAll(List.of(nested.children()));
+            } else if (!and && simplified instanceof CompiledRule.Or nested) {
+                flat.addAll(List.of(nested.children()));
+            } else {
+                flat.add(simplified);
+            }
+        }
+
+        List<CompiledRule> kept = new ArrayList<>();
+        Set<Object> seen = new HashSet<>();
+        for (CompiledRule child : flat) {
+            if (child instanceof CompiledRule.Constant constant) {
+                if (constant.value() == and) {
+                    continue;  // Neutral element: TRUE in an AND, FALSE in an OR
+                }
+                kept.add(child);
+                break;  // Everything after an absorbing constant is unreachable
+            }
+            if (!seen.add(key(child)) || impliedByEarlier(kept, child, and)) {
+                continue;
+            }
+            int last = kept.size() - 1;
+            CompiledRule merged = last < 0 ? null : mergeAdjacent(kept.get(last), child, and);
+            if (merged != null) {
+                kept.set(last, merged);
+            } else {
+                kept.add(child);
+            }
+        }
+
+        if (ranges) {
+            kept = foldRanges(kept, and);
+        }
+        if (kept.isEmpty()) {
+            return CompiledRule.Constant.of(and);
+        }
+        if (kept.size() == 1) {
+            return kept.get(0);
+        }
+        CompiledRule[] array = kept.toArray(new CompiledRule[0]);
+        return and ? new CompiledRule.And(array) : new CompiledRule.Or(array);
+    }
+
+    // Structural identity of a subtree, used to find repeated siblings
+    private static Object key(CompiledRule rule) {
+        if (rule instanceof CompiledRule.And and) {
+            return List.of("AND", keys(and.children()));
+        } else if (rule instanceof CompiledRule.Or or) {
+            return List.of("OR", keys(or.children()));
+        } else if (rule instanceof CompiledRule.Not not) {
+            return List.of("NOT", key(not.child()));
+        }
+        return rule;  // Comparisons and constants are records with value equality
+    }
+
+    private static List<Object> keys(CompiledRule[] rules) {
+        List<Object> keys = new ArrayList<>(rules.length);
+        for (CompiledRule rule : rules) {
+            keys.add(key(rule));
+        }
+        return keys;
+    }
+
+    // A later sibling can go if an earlier one settles it: in an AND it is only reached when every
+    // earlier sibling was true, in an OR only when every earlier sibling was false
+    private static boolean impliedByEarlier(List<CompiledRule> earlier, CompiledRule rule, boolean and) {
+        if (!(rule instanceof CompiledRule.Comparison later)) {
+            return false;
+        }
+        for (CompiledRule sibling : earlier) {
+            if (sibling instanceof CompiledRule.Comparison first && first.field().equals(later.field())
+                    && (and ? trueImpliesTrue(first, later) : falseImpliesFalse(first, later))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every value for which first is true also makes later true, without an error
+    private static boolean trueImpliesTrue(CompiledRule.Comparison first, CompiledRule.Comparison later) {
+        if (!first.numeric()) {
+            // Only a string equal to the literal makes a non-numeric "=" true
+            return first.operator() == ComparisonOperator.EQ && trueForString(later, first.literal());
+        }
+        Interval range = Interval.of(first);
+        if (range == null || !later.numeric()) {
+            return false;
+        }
+        boolean numbers = later.operator() == ComparisonOperator.NE
+                ? !range.contains(later.number())
+                : Interval.of(later) != null && range.within(Interval.of(later));
+        // A numeric "=" is also true for the string spelling its literal; ranges are never true for strings
+        return numbers && (first.operator() != ComparisonOperator.EQ || trueForString(later, first.literal()));
+    }
+
+    // Every value for which a range condition is false (it errors on anything but numbers) also makes later false
+    private static boolean falseImpliesFalse(CompiledRule.Comparison first, CompiledRule.Comparison later) {
+        if (first.operator().appliesToStrings()) {
+            return false;
+        }
+        Interval range = Interval.of(first);
+        Interval laterRange = Interval.of(later);
+        return range != null && laterRange != null && laterRange.within(range);
+    }
+
+    private static boolean trueForString(CompiledRule.Comparison comparison, String value) {
+        return comparison.operator().appliesToStrings()
+                && value.equals(comparison.literal()) == (comparison.operator() == ComparisonOperator.EQ);
+    }
+
+    // Adjacent range conditions on one field with the same operator fail the same way on non-numbers,
+    // so the pair reduces to the tighter one in an AND and the looser one in an OR
+    private static CompiledRule mergeAdjacent(CompiledRule previous, CompiledRule next, boolean and) {
+        if (!(previous instanceof CompiledRule.Comparison first) || !(next instanceof CompiledRule.Comparison second)
+                || !first.field().equals(second.field()) || first.operator() != second.operator()
+                || first.operator().appliesToStrings()) {
+            return null;
+        }
+        Interval firstRange = Interval.of(first);
+        Interval secondRange = Interval.of(second);
+        if (firstRange == null || secondRange == null) {
+            return null;
+        }
+        boolean secondTighter = secondRange.within(firstRange);
+        return and == secondTighter ? second : first;
+    }
+
+    // Range-only rewrites: contradictions in an AND, and conditions implied by any other sibling
+    private static List<CompiledRule> foldRanges(List<CompiledRule> children, boolean and) {
+        List<CompiledRule> kept = new ArrayList<>();
+        for (int i = 0; i < children.size(); i++) {
+            CompiledRule child = children.get(i);
+            if (child instanceof CompiledRule.Constant) {
+                // An absorbing constant decides the whole node
+                return List.of(child);
+            }
+            Interval range = child instanceof CompiledRule.Comparison comparison ? Interval.of(comparison) : null;
+            boolean redundant = false;
+            for (int j = 0; range != null && j < children.size() && !redundant; j++) {
+                Interval other = j != i && children.get(j) instanceof CompiledRule.Comparison comparison
+                        && comparison.field().equals(((CompiledRule.Comparison) child).field())
+                        ? Interval.of(comparison) : null;
+                if (other == null) {
+                    continue;
+                }
+                if (and && range.disjoint(other)) {
+                    return List.of(CompiledRule.Constant.FALSE);
+                }
+                // In an AND a looser condition is redundant, in an OR a tighter one; of two equal ones keep the first
+                Interval narrow = and ? other : range;
+                Interval wide = and ? range : other;
+                redundant = narrow.within(wide) && (j < i || !wide.within(narrow));
+            }
+            if (!redundant) {
+                kept.add(child);
+            }
+        }
+        return kept;
+    }
+
+    // Order children by expected cost per decided outcome and estimate cost and pass rate bottom-up
+    private static Plan plan(CompiledRule rule, SelectivityProfile profile) {
+        if (rule instanceof CompiledRule.Comparison comparison) {
+            return new Plan(rule, 1.0, profile.passRate(comparison, UNKNOWN_PASS_RATE));
+        } else if (rule instanceof CompiledRule.Constant constant) {
+            return new Plan(rule, 0.0, constant.value() ? 1.0 : 0.0);
+        } else if (rule instanceof CompiledRule.Not not) {
+            Plan child = plan(not.child(), profile);
+            return new Plan(new CompiledRule.Not(child.rule()), child.cost(), 1.0 - child.passRate());
+        }
+        boolean and = rule instanceof CompiledRule.And;
+        CompiledRule[] children = and ? ((CompiledRule.And) rule).children() : ((CompiledRule.Or) rule).children();
+        List<Plan> plans = new ArrayList<>(children.length);
+        for (CompiledRule child : children) {
+            plans.add(plan(child, profile));
+        }
+        // An AND stops at the first false child, an OR at the first true one: run the child with the
+        // lowest cost per chance of stopping first (stable sort keeps the written order on ties)
+        plans.sort(Comparator.comparingDouble(child -> rank(child, and)));
+
+        double cost = 0.0;
+        double reached = 1.0;
+        CompiledRule[] ordered = new CompiledRule[plans.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            Plan child = plans.get(i);
+            ordered[i] = child.rule();
+            cost += reached * child.cost();
+            reached *= and ? child.passRate() : 1.0 - child.passRate();
+        }
+        double passRate = and ? reached : 1.0 - reached;
+        return new Plan(and ? new CompiledRule.And(ordered) : new CompiledRule.Or(ordered), cost, passRate);
+    }
+
+    private static double rank(Plan plan, boolean and) {
+        double stops = and ? 1.0 - plan.passRate() : plan.passRate();
+        return stops <= 0.0 ? Double.POSITIVE_INFINITY : plan.cost() / stops;
+    }
+}
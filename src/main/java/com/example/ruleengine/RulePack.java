@@ -0,0 +1,292 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// RulePack.java
+// Versioned binary file holding many rules, read through a memory-mapped buffer. Opening a pack only
+// checks its header; a rule's tree is decoded when that rule is looked up, so startup time and heap do
+// not grow with the size of the catalogue. Layout (big-endian, offsets from the start of the file):
+//   header       magic "RPAK", format version, rule count, string count, node section offset  (5 ints)
+//   rule index   per rule, sorted by id: id string, rule version, root node  (int, long, int)
+//   strings      offset of every string, then each as length + UTF-8 bytes
+//   nodes        operand: 0, value string; operator: 1, value string, left node, right node (-1 if none)
+// Node references are offsets within the node section. Nodes are written children first and shared
+// subtrees only once, so a child always lies before its parent; a reader relies on that to reject
+// corrupt files, which fail with IllegalArgumentException rather than loop or read out of bounds.
+public final class RulePack {
+
+    public static final int MAGIC = 0x5250414B;  // "RPAK"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 20;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final byte OPERAND = 0;
+    private static final byte OPERATOR = 1;
+
+    private final ByteBuffer buffer;
+    private final int ruleCount;
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int nodeBase;
+
+    private RulePack(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a rule pack");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported rule pack version: " + version);
+        }
+        this.buffer = buffer;
+        this.ruleCount = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.nodeBase = buffer.getInt(16);
+        long stringOffsets = HEADER_SIZE + (long) ruleCount * INDEX_ENTRY_SIZE;
+        if (ruleCount < 0 || stringCount < 0 || stringOffsets + (long) stringCount * 4 > nodeBase
+                || nodeBase > buffer.limit()) {
+            throw corrupt();
+        }
+        this.stringOffsets = (int) stringOffsets;
+    }
+
+    // Map a pack file into memory; the mapping stays valid after the channel is closed
+    public static RulePack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new RulePack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Pack held in a byte array, e.g. one just received over the network
+    public static RulePack of(byte[] bytes) {
+        return new RulePack(ByteBuffer.wrap(bytes));
+    }
+
+    public int size() {
+        return ruleCount;
+    }
+
+    // Rule by id, decoded from the pack; binary search over the sorted index
+    public Optional<RegisteredRule> find(String id) {
+        int low = 0;
+        int high = ruleCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = idAt(middle).compareTo(id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return Optional.of(ruleAt(middle));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Rule at a position of the index, in id order
+    public RegisteredRule ruleAt(int position) {
+        checkPosition(position);
+        int entry = HEADER_SIZE + position * INDEX_ENTRY_SIZE;
+        return new RegisteredRule(idAt(position), buffer.getLong(entry + 4), readNode(buffer.getInt(entry + 12)));
+    }
+
+    public String idAt(int position) {
+        checkPosition(position);
+        return string(buffer.getInt(HEADER_SIZE + position * INDEX_ENTRY_SIZE));
+    }
+
+    // Write rules as a pack file, replacing any existing file
+    public static void write(Path path, Collection<RegisteredRule> rules) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out, rules);
+        }
+    }
+
+    public static void write(OutputStream out, Collection<RegisteredRule> rules) throws IOException {
+        List<RegisteredRule> sorted = new ArrayList<>(rules);
+        sorted.sort(Comparator.comparing(RegisteredRule::id));
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (RegisteredRule rule : sorted) {
+            strings.putIfAbsent(rule.id(), strings.size());
+        }
+
+        // Nodes first, so every string they use is known
+        ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+        DataOutputStream nodes = new DataOutputStream(nodeBytes);
+        Map<Node, Integer> written = new IdentityHashMap<>();
+        int[] roots = new int[sorted.size()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = writeNode(Node.canonical(sorted.get(i).rule()), nodes, written, strings);
+        }
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream stringData = new DataOutputStream(stringBytes);
+        int stringBase = HEADER_SIZE + sorted.size() * INDEX_ENTRY_SIZE + strings.size() * 4;
+        int[] stringPositions = new int[strings.size()];
+        for (Map.Entry<String, Integer> string : strings.entrySet()) {
+            stringPositions[string.getValue()] = stringBase + stringData.size();
+            byte[] utf8 = string.getKey().getBytes(StandardCharsets.UTF_8);
+            stringData.writeInt(utf8.length);
+            stringData.write(utf8);
+        }
+        int nodeBase = stringBase + stringData.size();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(sorted.size());
+        data.writeInt(strings.size());
+        data.writeInt(nodeBase);
+        for (int i = 0; i < roots.length; i++) {
+            RegisteredRule rule = sorted.get(i);
+            data.writeInt(strings.get(rule.id()));
+            data.writeLong(rule.version());
+            data.writeInt(roots[i]);
+        }
+        for (int position : stringPositions) {
+            data.writeInt(position);
+        }
+        stringBytes.writeTo(data);
+        nodeBytes.writeTo(data);
+        data.flush();
+    }
+
+    // Write the tree children first without recursion; returns the offset of the root in the node section
+    private static int writeNode(Node root, DataOutputStream out, Map<Node, Integer> written, Map<String, Integer> strings)
+            throws IOException {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.peek();
+            if (written.containsKey(node)) {
+                pending.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (Node child : new Node[] { node.getRight(), node.getLeft() }) {
+                if (child != null && !written.containsKey(child)) {
+                    pending.push(child);
+                    ready = false;
+                }
+            }
+            if (!ready) {
+                continue;
+            }
+            pending.pop();
+            written.put(node, out.size());
+            int value = node.getValue() == null ? -1 : strings.computeIfAbsent(node.getValue(), key -> strings.size());
+            if (node.getType() == NodeType.OPERAND) {
+                out.writeByte(OPERAND);
+                out.writeInt(value);
+            } else {
+                out.writeByte(OPERATOR);
+                out.writeInt(value);
+                out.writeInt(node.getLeft() == null ? -1 : written.get(node.getLeft()));
+                out.writeInt(node.getRight() == null ? -1 : written.get(node.getRight()));
+            }
+        }
+        return written.get(root);
+    }
+
+    // Decode the tree rooted at an offset into shared nodes, children first and without recursion
+    private Node readNode(int root) {
+        // Offsets below are within the node section
+        Map<Integer, Node> decoded = new HashMap<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            int offset = pending.peek();
+            if (decoded.containsKey(offset)) {
+                pending.pop();
+                continue;
+            }
+            int position = nodeBase + offset;
+            checkNode(offset, 5);
+            String value = string(buffer.getInt(position + 1));
+            byte kind = buffer.get(position);
+            if (kind == OPERAND) {
+                pending.pop();
+                decoded.put(offset, Node.operand(value));
+                continue;
+            }
+            if (kind != OPERATOR) {
+                throw corrupt();
+            }
+            checkNode(offset, 13);
+            int left = buffer.getInt(position + 5);
+            int right = buffer.getInt(position + 9);
+            if (left < -1 || left >= offset || right < -1 || right >= offset) {
+                throw corrupt();  // Children are written first, so anything else would be a cycle
+            }
+            boolean ready = true;
+            for (int child : new int[] { right, left }) {
+                if (child >= 0 && !decoded.containsKey(child)) {
+                    pending.push(child);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                pending.pop();
+                decoded.put(offset, Node.operator(value, left < 0 ? null : decoded.get(left), right < 0 ? null : decoded.get(right)));
+            }
+        }
+        return decoded.get(root);
+    }
+
+    private String string(int index) {
+        if (index == -1) {
+            return null;
+        }
+        if (index < 0 || index >= stringCount) {
+            throw corrupt();
+        }
+        int offset = buffer.getInt(stringOffsets + index * 4);
+        if (offset < stringOffsets || offset > nodeBase - 4) {
+            throw corrupt();
+        }
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > nodeBase - offset - 4) {
+            throw corrupt();
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(offset + 4, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= ruleCount) {
+            throw new IndexOutOfBoundsException("No rule at position " + position);
+        }
+    }
+
+    // The node record of the given size at an offset must lie inside the file
+    private void checkNode(int offset, int size) {
+        if (offset < 0 || offset > buffer.limit() - nodeBase - size) {
+            throw corrupt();
+        }
+    }
+
+    private static IllegalArgumentException corrupt() {
+        return new IllegalArgumentException("Corrupt rule pack");
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+// Read-only RuleStore serving the rules of a RulePack, used instead of the database when
+// ruleengine.rule-pack.path is set. Rules are decoded from the mapped file when first looked up, so a
+// node starts without reading the catalogue. Evaluation counts are only kept in memory.
+@Component
+@Primary
+@ConditionalOnProperty(name = "ruleengine.rule-pack.path")
+public class RulePackStore implements RuleStore {
+
+    private final RulePack pack;
+    private final Map<String, Long> evaluations = new ConcurrentHashMap<>();
+
+    public RulePackStore(@Value("${ruleengine.rule-pack.path}") Path path) throws IOException {
+        this(RulePack.open(path));
+    }
+
+    public RulePackStore(RulePack pack) {
+        this.pack = pack;
+    }
+
+    @Override
+    public RegisteredRule create(Node rule) {
+        throw new UnsupportedOperationException("Rules from a rule pack are read-only");
+    }
+
+    @Override
+    public Optional<RegisteredRule> update(String id, Node rule) {
+        throw new UnsupportedOperationException("Rules from a rule pack are read-only");
+    }
+
+    @Override
+    public Optional<RegisteredRule> find(String id) {
+        return pack.find(id);
+    }
+
+    @Override
+    public List<RegisteredRule> findAll() {
+        List<RegisteredRule> all = new ArrayList<>(pack.size());
+        for (int position = 0; position < pack.size(); position++) {
+            all.add(pack.ruleAt(position));
+        }
+        return all;
+    }
+
+    // Counted rules first, then the rest in pack order, decoding only the rules returned
+    @Override
+    public List<RegisteredRule> findHottest(int limit) {
+        Set<String> ids = new LinkedHashSet<>();
+        evaluations.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> ids.add(entry.getKey()));
+        for (int position = 0; position < pack.size() && ids.size() < limit; position++) {
+            ids.add(pack.idAt(position));
+        }
+        return ids.stream().map(pack::find).flatMap(Optional::stream).toList();
+    }
+
+    @Override
+    public boolean delete(String id) {
+        throw new UnsupportedOperationException("Rules from a rule pack are read-only");
+    }
+
+    @Override
+    public void recordEvaluations(Map<String, Long> counts) {
+        counts.forEach((id, count) -> evaluations.merge(id, count, Long::sum));
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// RuleParser.java
+// Single-pass tokenizer and recursive-descent parser for rule strings. Grammar, loosest binding first:
+//
+//   expression := and ( OR and )*
+//   and        := unary ( AND unary )*
+//   unary      := NOT unary | '(' expression ')' | condition
+//   condition  := field ( '=' | '!=' | '>' | '>=' | '<' | '<=' ) literal
+//               | field [ NOT ] IN '(' literal ( ',' literal )* ')'
+//   literal    := number | 'quoted' | "quoted" | bare-word
+//
+// Keywords are case-insensitive. Operand nodes hold the condition in canonical form ("age >= 30",
+// "department = 'Sales'"); IN lists are expanded into a balanced OR of equality operands so the
+// rest of the engine only ever sees simple comparisons. NOT and parentheses recurse, so they may nest
+// at most MAX_NESTING levels deep; AND and OR chains of any length are parsed in loops.
+public final class RuleParser {
+
+    static final int MAX_NESTING = 256;
+
+    private enum TokenType { FIELD, NUMBER, STRING, COMPARISON, AND, OR, NOT, IN, LEFT_PAREN, RIGHT_PAREN, COMMA, END }
+
+    private record Token(TokenType type, String text, int position) {
+    }
+
+    private final String source;
+    private final List<Token> tokens;
+    private int current;
+    private int nesting;
+
+    private RuleParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    // Parse a full rule expression into a Node tree
+    public static Node parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Rule cannot be empty");
+        }
+        RuleParser parser = new RuleParser(rule);
+        Node node = parser.expression();
+        parser.expect(TokenType.END, "Expected AND, OR or end of rule");
+        return node;
+    }
+
+    // Parse a single comparison, as held by an operand node, into its compiled form
+    public static CompiledRule.Comparison parseComparison(String operand) {
+        if (operand == null || operand.isBlank()) {
+            throw new IllegalArgumentException("Operand cannot be empty");
+        }
+        RuleParser parser = new RuleParser(operand);
+        Token field = parser.expect(TokenType.FIELD, "Expected field name");
+        Token operator = parser.expect(TokenType.COMPARISON, "Expected comparison operator after '" + field.text() + "'");
+        Token literal = parser.literal();
+        parser.expect(TokenType.END, "Expected end of operand");
+        return CompiledRule.Comparison.of(field.text(), ComparisonOperator.fromSymbol(operator.text()), literal.text());
+    }
+
+    private Node expression() {
+        Node node = and();
+        while (match(TokenType.OR)) {
+            node = RuleEngine.combineRules(node, and(), "OR");
+        }
+        return node;
+    }
+
+    private Node and() {
+        Node node = unary();
+        while (match(TokenType.AND)) {
+            node = RuleEngine.combineRules(node, unary(), "AND");
+        }
+        return node;
+    }
+
+    private Node unary() {
+        Token token = peek();
+        if (token.type() != TokenType.NOT && token.type() != TokenType.LEFT_PAREN) {
+            return condition();
+        }
+        if (++nesting > MAX_NESTING) {
+            throw new RuleSyntaxException("Rule nested deeper than " + MAX_NESTING + " levels in \"" + source + "\"",
+                    token.position());
+        }
+        advance();
+        Node node;
+        if (token.type() == TokenType.NOT) {
+            node = Node.operator("NOT", unary(), null);
+        } else {
+            node = expression();
+            expect(TokenType.RIGHT_PAREN, "Expected ')'");
+        }
+        nesting--;
+        return node;
+    }
+
+    private Node condition() {
+        Token field = expect(TokenType.FIELD, "Expected field name");
+        if (peek().type() == TokenType.COMPARISON) {
+            Token operator = advance();
+            return operand(field.text(), operator.text(), literal());
+        }
+
+        boolean negated = match(TokenType.NOT);
+        if (!match(TokenType.IN)) {
+            throw error("Expected comparison operator after '" + field.text() + "'", peek());
+        }
+        expect(TokenType.LEFT_PAREN, "Expected '(' after IN");
+        List<Node> alternatives = new ArrayList<>();
+        do {
+            alternatives.add(operand(field.text(), "=", literal()));
+        } while (match(TokenType.COMMA));
+        expect(TokenType.RIGHT_PAREN, "Expected ')' to close IN list");
+
+        Node membership = balancedOr(alternatives, 0, alternatives.size());
+        return negated ? Node.operator("NOT", membership, null) : membership;
+    }
+
+    // Combine IN alternatives into a tree of logarithmic depth
+    private static Node balancedOr(List<Node> nodes, int from, int to) {
+        if (to - from == 1) {
+            return nodes.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return RuleEngine.combineRules(balancedOr(nodes, from, middle), balancedOr(nodes, middle, to), "OR");
+    }
+
+    private Token literal() {
+        Token token = peek();
+        if (token.type() == TokenType.NUMBER || token.type() == TokenType.STRING || token.type() == TokenType.FIELD) {
+            return advance();
+        }
+        throw error("Expected a value", token);
+    }
+
+    // Build an operand node holding the condition in canonical form
+    private static Node operand(String field, String operator, Token literal) {
+        String value = literal.type() == TokenType.NUMBER ? literal.text() : quote(literal.text());
+        return Node.operand(field + " " + operator + " " + value);
+    }
+
+    private static String quote(String text) {
+        return "'" + text.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private Token peek() {
+        return tokens.get(current);
+    }
+
+    private Token advance() {
+        Token token = tokens.get(current);
+        if (token.type() != TokenType.END) {
+            current++;
+        }
+        return token;
+    }
+
+    private boolean match(TokenType type) {
+        if (peek().type() == type) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(TokenType type, String message) {
+        if (peek().type() != type) {
+            throw error(message, peek());
+        }
+        return advance();
+    }
+
+    private RuleSyntaxException error(String message, Token token) {
+        String found = token.type() == TokenType.END ? "end of rule" : "'" + token.text() + "'";
+        return new RuleSyntaxException(message + " but found " + found + " in \"" + source + "\"", token.position());
+    }
+
+    // Split the source into tokens in a single pass
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LEFT_PAREN, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RIGHT_PAREN, ")", i++));
+            } else if (c == ',') {
+                tokens.add(new Token(TokenType.COMMA, ",", i++));
+            } else if (c == '=') {
+                tokens.add(new Token(TokenType.COMPARISON, "=", i++));
+            } else if (c == '>' || c == '<' || c == '!') {
+                boolean withEquals = i + 1 < length && source.charAt(i + 1) == '=';
+                if (c == '!' && !withEquals) {
+                    throw new RuleSyntaxException("Expected '=' after '!' in \"" + source + "\"", i);
+                }
+                i += withEquals ? 2 : 1;
+                tokens.add(new Token(TokenType.COMPARISON, source.substring(start, i), start));
+            } else if (c == '\'' || c == '"') {
+                StringBuilder text = new StringBuilder();
+                i++;
+                while (i < length && source.charAt(i) != c) {
+                    if (source.charAt(i) == '\\' && i + 1 < length) {
+                        i++;
+                    }
+                    text.append(source.charAt(i++));
+                }
+                if (i >= length) {
+                    throw new RuleSyntaxException("Unterminated string in \"" + source + "\"", start);
+                }
+                i++;
+                tokens.add(new Token(TokenType.STRING, text.toString(), start));
+            } else if (Character.isDigit(c) || ((c == '-' || c == '+' || c == '.') && i + 1 < length
+                    && (Character.isDigit(source.charAt(i + 1)) || source.charAt(i + 1) == '.'))) {
+                i = scanNumber(source, i);
+                tokens.add(new Token(TokenType.NUMBER, source.substring(start, i), start));
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = source.substring(start, i);
+                tokens.add(new Token(keyword(word), word, start));
+            } else {
+                throw new RuleSyntaxException("Unexpected character '" + c + "' in \"" + source + "\"", i);
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", length));
+        return tokens;
+    }
+
+    // Scan sign, digits, fraction and exponent; returns the index just past the number
+    private static int scanNumber(String source, int start) {
+        int length = source.length();
+        int i = start;
+        if (source.charAt(i) == '-' || source.charAt(i) == '+') {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && Character.isDigit(source.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && source.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(source.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits > 0 && i < length && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < length && (source.charAt(exponent) == '-' || source.charAt(exponent) == '+')) {
+                exponent++;
+            }
+            if (exponent < length && Character.isDigit(source.charAt(exponent))) {
+                i = exponent;
+                while (i < length && Character.isDigit(source.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        if (digits == 0 || (i < length && (Character.isLetterOrDigit(source.charAt(i))
+                || source.charAt(i) == '_' || source.charAt(i) == '.'))) {
+            throw new RuleSyntaxException("Invalid number in \"" + source + "\"", start);
+        }
+        return i;
+    }
+
+    private static TokenType keyword(String word) {
+        switch (word.toUpperCase(Locale.ROOT)) {
+            case "AND" -> {
+                return TokenType.AND;
+            }
+            case "OR" -> {
+                return TokenType.OR;
+            }
+            case "NOT" -> {
+                return TokenType.NOT;
+            }
+            case "IN" -> {
+                return TokenType.IN;
+            }
+            default -> {
+                return TokenType.FIELD;
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.ruleengine;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// RuleRegistry.java
+// Server-side access to rules by id. Rules are persisted in a RuleStore and loaded into memory
+// lazily on first use (or up front by warmUp); the compiled form lives in a bounded
+// CompiledRuleCache so a hot rule is parsed and compiled only once. Cached rules are tiered: after
+// ruleengine.tiering.threshold evaluations a rule is recompiled into a MethodHandle in the background.
+// Rules pass through RuleOptimizer first; with ruleengine.optimizer.reorder the interpreted phase also
+// profiles conditions so the generated form runs the most selective ones first. Single-record
+// evaluations can additionally be memoized in a ResultCache (ruleengine.results.max-entries).
+//
+// The matcher over all rules is copy-on-write: after a change it is rebuilt in the background from the
+// cached compiled rules, and the previous matcher keeps answering until the new one is published.
+@Service
+public class RuleRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleRegistry.class);
+
+    private final RuleStore store;
+    private final Map<String, RegisteredRule> rules = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> evaluationCounts = new ConcurrentHashMap<>();
+    private final CompiledRuleCache cache;
+    private final ResultCache results;
+    private final AtomicLong modifications = new AtomicLong();
+    private final AtomicReference<MatcherSnapshot> matcher = new AtomicReference<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Executor rebuilds;
+
+    // Matcher built over every rule at a given modification count
+    private record MatcherSnapshot(long modification, RuleMatcher matcher) {
+    }
+
+    @Autowired
+    public RuleRegistry(RuleStore store, @Value("${ruleengine.cache.max-weight:100000}") long maxCacheWeight,
+                        @Value("${ruleengine.tiering.threshold:10000}") int tieringThreshold,
+                        @Value("${ruleengine.optimizer.reorder:false}") boolean reorder,
+                        @Value("${ruleengine.results.max-entries:0}") int maxResults,
+                        @Value("${ruleengine.results.ttl-ms:60000}") long resultTtlMillis) {
+        this(store, maxCacheWeight, tieringThreshold, reorder, maxResults, resultTtlMillis, ForkJoinPool.commonPool());
+    }
+
+    // Registry whose matcher rebuilds run on the given executor
+    RuleRegistry(RuleStore store, long maxCacheWeight, int tieringThreshold, boolean reorder, int maxResults,
+                 long resultTtlMillis, Executor rebuilds) {
+        this.store = store;
+        this.rebuilds = rebuilds;
+        this.results = new ResultCache(maxResults, resultTtlMillis);
+        this.cache = new CompiledRuleCache(maxCacheWeight, node -> new TieredRule(RuleOptimizer.optimize(RuleEngine.compile(node)),
+                tieringThreshold, ForkJoinPool.commonPool(), reorder ? new SelectivityProfile() : null));
+    }
+
+    // Register a new rule; it is compiled eagerly so invalid rules are rejected up front
+    public RegisteredRule register(Node rule) {
+        RuleEngine.compile(rule);
+        RegisteredRule registered = store.create(rule);
+        rules.put(registered.id(), registered);
+        ruleSetChanged();
+        return registered;
+    }
+
+    // Replace an existing rule with a new version
+    public Optional<RegisteredRule> update(String id, Node rule) {
+        RuleEngine.compile(rule);
+        Optional<RegisteredRule> updated = store.update(id, rule);
+        updated.ifPresent(registered -> {
+            rules.put(id, registered);
+            cache.invalidate(id);
+            results.invalidate(id);
+            ruleSetChanged();
+        });
+        return updated;
+    }
+
+    public boolean remove(String id) {
+        boolean removed = store.delete(id);
+        rules.remove(id);
+        evaluationCounts.remove(id);
+        cache.invalidate(id);
+        results.invalidate(id);
+        ruleSetChanged();
+        return removed;
+    }
+
+    // Rule by id, loaded from the store on first use
+    public Optional<RegisteredRule> get(String id) {
+        RegisteredRule registered = rules.get(id);
+        if (registered != null) {
+            return Optional.of(registered);
+        }
+        Optional<RegisteredRule> loaded = store.find(id);
+        loaded.ifPresent(rule -> rules.putIfAbsent(id, rule));
+        return loaded.map(rule -> rules.getOrDefault(id, rule));
+    }
+
+    public List<RegisteredRule> list() {
+        return store.findAll();
+    }
+
+    // Compiled form of the current version of a rule, or empty if the id is unknown
+    public Optional<CompiledRule> getCompiled(String id) {
+        Optional<RegisteredRule> registered = get(id);
+        registered.ifPresent(rule -> evaluationCounts.computeIfAbsent(id, key -> new LongAdder()).increment());
+        return registered.map(rule -> cache.get(new CompiledRuleCache.Key(id, rule.version()), rule::rule));
+    }
+
+    // Like getCompiled, but plain evaluations of the returned rule go through the result cache
+    public Optional<CompiledRule> getMemoized(String id) {
+        Optional<RegisteredRule> registered = get(id);
+        registered.ifPresent(rule -> evaluationCounts.computeIfAbsent(id, key -> new LongAdder()).increment());
+        return registered.map(rule -> {
+            CompiledRuleCache.Key key = new CompiledRuleCache.Key(id, rule.version());
+            return results.memoize(key, cache.get(key, rule::rule));
+        });
+    }
+
+    // Load and compile the most frequently evaluated rules so they are hot before traffic arrives
+    public int warmUp(int limit) {
+        int warmed = 0;
+        for (RegisteredRule rule : store.findHottest(limit)) {
+            rules.putIfAbsent(rule.id(), rule);
+            RegisteredRule current = rules.get(rule.id());
+            cache.get(new CompiledRuleCache.Key(current.id(), current.version()), current::rule);
+            warmed++;
+        }
+        return warmed;
+    }
+
+    // Persist evaluation counts collected since the last flush; they decide which rules warmUp picks
+    @Scheduled(fixedDelayString = "${ruleengine.stats.flush-interval-ms:30000}")
+    public void flushEvaluationCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        evaluationCounts.forEach((id, count) -> {
+            long value = count.sumThenReset();
+            if (value > 0) {
+                counts.put(id, value);
+            }
+        });
+        if (!counts.isEmpty()) {
+            store.recordEvaluations(counts);
+        }
+    }
+
+    // Matcher over all registered rules. Only the first call builds one on the calling thread; after that
+    // a change is picked up once its background rebuild is published.
+    public RuleMatcher getMatcher() {
+        MatcherSnapshot current = matcher.get();
+        if (current == null) {
+            synchronized (this) {
+                current = matcher.get();
+                if (current == null) {
+                    current = publish(buildMatcher());
+                }
+            }
+            if (current.modification() != modifications.get()) {
+                scheduleRebuild();  // Changed while the first matcher was built
+            }
+        }
+        return current.matcher();
+    }
+
+    private void ruleSetChanged() {
+        modifications.incrementAndGet();
+        if (matcher.get() != null) {
+            scheduleRebuild();
+        }
+    }
+
+    // At most one rebuild is queued or running; changes made meanwhile are picked up by another rebuild
+    // when it finishes
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilds.execute(this::rebuildMatcher);
+        }
+    }
+
+    private void rebuildMatcher() {
+        MatcherSnapshot published;
+        try {
+            published = publish(buildMatcher());
+        } catch (RuntimeException e) {
+            log.warn("Rule matcher rebuild failed; the previous matcher stays in use until the next change", e);
+            rebuildPending.set(false);
+            return;
+        }
+        rebuildPending.set(false);
+        if (published.modification() != modifications.get()) {
+            scheduleRebuild();
+        }
+    }
+
+    // Build from the compiled rule cache, so only new or changed rules are compiled
+    private MatcherSnapshot buildMatcher() {
+        long modification = modifications.get();  // Read first: a change during the build is never missed
+        Map<String, CompiledRule> compiled = new LinkedHashMap<>();
+        for (RegisteredRule rule : list()) {
+            compiled.put(rule.id(), cache.get(new CompiledRuleCache.Key(rule.id(), rule.version()), rule::rule));
+        }
+        return new MatcherSnapshot(modification, RuleMatcher.build(compiled));
+    }
+
+    // Publish a snapshot unless a newer one is already in place; returns the snapshot in place
+    private MatcherSnapshot publish(MatcherSnapshot built) {
+        return matcher.accumulateAndGet(built,
+                (current, next) -> current == null || next.modification() > current.modification() ? next : current);
+    }
+
+    public CompiledRuleCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    public ResultCache.Stats resultStats() {
+        return results.stats();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ruleengine;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RuleRepository extends JpaRepository<RuleEntity, Long> {
+
+    List<RuleEntity> findAllByOrderByIdAsc();
+
+    List<RuleEntity> findAllByOrderByEvaluationCountDesc(Pageable pageable);
+
+    @Modifying
+    @Query("update RuleEntity r set r.evaluationCount = r.evaluationCount + :count where r.id = :id")
+    int addEvaluations(@Param("id") Long id, @Param("count") long count);
+}
@@ -0,0 +1,78 @@
+package com.example.ruleengine;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// RuleSet.java
+// Immutable snapshot of a whole set of rules, compiled and indexed for matching before it is published.
+// Readers take the current snapshot once per request and use only it, so a reload can never show them a
+// mix of old and new rules.
+public final class RuleSet {
+
+    private final long version;
+    private final String source;
+    private final Instant loadedAt;
+    private final Map<String, RegisteredRule> rules;
+    private final Map<String, CompiledRule> compiled;
+    private final RuleMatcher matcher;
+
+    // Summary of a snapshot, without its rules
+    public record Info(long version, String source, Instant loadedAt, int rules) {
+    }
+
+    private RuleSet(long version, String source, Instant loadedAt, Map<String, RegisteredRule> rules,
+                    Map<String, CompiledRule> compiled) {
+        this.version = version;
+        this.source = source;
+        this.loadedAt = loadedAt;
+        this.rules = rules;
+        this.compiled = compiled;
+        this.matcher = RuleMatcher.build(compiled);
+    }
+
+    // Compile every rule up front; any invalid rule rejects the whole set
+    public static RuleSet compile(long version, String source, List<RegisteredRule> rules) {
+        Map<String, RegisteredRule> byId = new LinkedHashMap<>();
+        Map<String, CompiledRule> compiled = new LinkedHashMap<>();
+        for (RegisteredRule rule : rules) {
+            if (byId.putIfAbsent(rule.id(), rule) != null) {
+                throw new IllegalArgumentException("Duplicate rule id: " + rule.id());
+            }
+            try {
+                compiled.put(rule.id(), RuleOptimizer.optimize(RuleEngine.compile(rule.rule())));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule " + rule.id() + ": " + e.getMessage(), e);
+            }
+        }
+        return new RuleSet(version, source, Instant.now(), Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(compiled));
+    }
+
+    public static RuleSet empty() {
+        return new RuleSet(0, "empty", Instant.now(), Map.of(), Map.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Info info() {
+        return new Info(version, source, loadedAt, rules.size());
+    }
+
+    public Optional<RegisteredRule> get(String id) {
+        return Optional.ofNullable(rules.get(id));
+    }
+
+    public Optional<CompiledRule> getCompiled(String id) {
+        return Optional.ofNullable(compiled.get(id));
+    }
+
+    public RuleMatcher getMatcher() {
+        return matcher;
+    }
+}
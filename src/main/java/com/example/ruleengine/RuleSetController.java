@@ -0,0 +1,91 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// RuleSetController.java
+// Evaluation against the published RuleSet snapshot, and reloading it without a restart. Every response
+// carries the version of the snapshot that produced it in the Rule-Set-Version header.
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/rule-set")
+public class RuleSetController {
+
+    private static final String VERSION_HEADER = "Rule-Set-Version";
+
+    private final RuleSetManager ruleSetManager;
+    private final RuleMetrics ruleMetrics;
+
+    public RuleSetController(RuleSetManager ruleSetManager, RuleMetrics ruleMetrics) {
+        this.ruleSetManager = ruleSetManager;
+        this.ruleMetrics = ruleMetrics;
+    }
+
+    @GetMapping
+    public ResponseEntity<RuleSet.Info> getRuleSet() {
+        RuleSet ruleSet = ruleSetManager.current();
+        return ResponseEntity.ok().header(VERSION_HEADER, String.valueOf(ruleSet.getVersion())).body(ruleSet.info());
+    }
+
+    // Endpoint to compile and publish a new rule set from the rule store ("store") or the configured file ("file")
+    @PostMapping("/reload")
+    public ResponseEntity<Object> reload(@RequestParam(defaultValue = "store") String source) {
+        try {
+            RuleSet ruleSet = switch (source) {
+                case "store" -> ruleSetManager.reloadFromStore();
+                case "file" -> ruleSetManager.reloadFromFile();
+                default -> throw new IllegalArgumentException("Unknown rule set source: " + source);
+            };
+            return ResponseEntity.ok().header(VERSION_HEADER, String.valueOf(ruleSet.getVersion())).body(ruleSet.info());
+        } catch (IllegalArgumentException e) {
+            ruleMetrics.error("reload_rule_set", e);
+            return ResponseEntity.badRequest().body("Invalid rule set: " + e.getMessage());
+        } catch (IOException e) {
+            ruleMetrics.error("reload_rule_set", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Cannot read rule set: " + e.getMessage());
+        }
+    }
+
+    // Endpoint to evaluate one rule of the current rule set
+    @PostMapping("/{id}/evaluate")
+    public ResponseEntity<Object> evaluateRule(@PathVariable String id, @RequestBody Map<String, Object> payload) {
+        Map<String, Object> data = RuleEngine.toData(payload.get("data"));
+        if (data == null) {
+            return ResponseEntity.badRequest().body("Missing required field: 'data'");
+        }
+        RuleSet ruleSet = ruleSetManager.current();
+        String version = String.valueOf(ruleSet.getVersion());
+        try {
+            return ruleSet.getCompiled(id)
+                    .<ResponseEntity<Object>>map(rule -> ResponseEntity.ok().header(VERSION_HEADER, version)
+                            .body(ruleMetrics.evaluate(id, () -> rule.evaluate(data))))
+                    .orElseGet(() -> ResponseEntity.notFound().header(VERSION_HEADER, version).build());
+        } catch (IllegalArgumentException e) {
+            ruleMetrics.error("evaluate_rule_set", e);
+            return ResponseEntity.badRequest().header(VERSION_HEADER, version).body("Invalid rule: " + e.getMessage());
+        }
+    }
+
+    // Endpoint returning the ids of every rule of the current rule set that the record matches
+    @PostMapping("/match")
+    public ResponseEntity<Object> matchRules(@RequestBody Map<String, Object> payload) {
+        Map<String, Object> data = RuleEngine.toData(payload.get("data"));
+        if (data == null) {
+            return ResponseEntity.badRequest().body("Missing required field: 'data'");
+        }
+        RuleSet ruleSet = ruleSetManager.current();
+        return ResponseEntity.ok().header(VERSION_HEADER, String.valueOf(ruleSet.getVersion()))
+                .body(ruleMetrics.match(() -> ruleSet.getMatcher().match(data)));
+    }
+}
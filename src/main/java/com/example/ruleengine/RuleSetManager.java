@@ -0,0 +1,103 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// RuleSetManager.java
+// Publishes RuleSet snapshots. A reload reads and compiles the new rules on the caller's thread, away
+// from evaluations, then makes them visible with one atomic reference swap. Reads never lock and never
+// wait for a reload. A replaced snapshot stays usable by readers that already hold it and is reclaimed
+// by the garbage collector once the last of them is done. Reloads are serialized with each other.
+//
+// Rules come from the RuleStore or from a JSON file (ruleengine.rule-set.location, a Spring resource
+// location such as classpath:rules.json). The file holds one rule payload or a list of them, in the
+// format of POST /api/rules, optionally with an "id"; rules without one are numbered from 1.
+@Service
+public class RuleSetManager {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetManager.class);
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+
+    private final AtomicReference<RuleSet> current = new AtomicReference<>(RuleSet.empty());
+    private final RuleRegistry ruleRegistry;
+    private final ObjectMapper objectMapper;
+    private final String location;
+
+    public RuleSetManager(RuleRegistry ruleRegistry, ObjectMapper objectMapper,
+                          @Value("${ruleengine.rule-set.location:classpath:rules.json}") String location) {
+        this.ruleRegistry = ruleRegistry;
+        this.objectMapper = objectMapper;
+        this.location = location;
+    }
+
+    // Snapshot to use for the whole of one request
+    public RuleSet current() {
+        return current.get();
+    }
+
+    // Replace the rule set with every rule in the RuleStore
+    public RuleSet reloadFromStore() {
+        return publish("store", ruleRegistry.list());
+    }
+
+    // Replace the rule set with the rules of the configured file
+    public RuleSet reloadFromFile() throws IOException {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return publish(location, readRules(objectMapper.readTree(in)));
+        }
+    }
+
+    // Compile, then swap; on failure the current snapshot stays in place
+    synchronized RuleSet publish(String source, List<RegisteredRule> rules) {
+        long start = System.nanoTime();
+        long version = current.get().getVersion() + 1;
+        RuleSet next = RuleSet.compile(version, source, rules);
+        current.set(next);
+        log.info("rule_set_reload version={} source={} rules={} millis={}", version, source, rules.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return next;
+    }
+
+    private List<RegisteredRule> readRules(JsonNode content) {
+        List<JsonNode> payloads = new ArrayList<>();
+        if (content.isArray()) {
+            content.forEach(payloads::add);
+        } else if (content.isObject()) {
+            payloads.add(content);
+        } else {
+            throw new IllegalArgumentException("Rule set must be a JSON object or a list");
+        }
+        List<RegisteredRule> rules = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            JsonNode payload = payloads.get(i);
+            if (!payload.isObject()) {
+                throw new IllegalArgumentException("Each rule in the rule set must be a valid JSON object");
+            }
+            String id = payload.hasNonNull("id") ? payload.get("id").asText() : String.valueOf(i + 1);
+            Map<String, Object> fields = objectMapper.convertValue(payload, PAYLOAD);
+            try {
+                rules.add(new RegisteredRule(id, 1, RuleEngine.createRuleFromPayload(fields)));
+            } catch (IllegalArgumentException | ClassCastException e) {
+                throw new IllegalArgumentException("Rule " + id + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+}
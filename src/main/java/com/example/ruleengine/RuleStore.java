@@ -0,0 +1,28 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Durable storage of rule definitions used by the RuleRegistry; one entry per rule, holding its whole tree
+public interface RuleStore {
+
+    // Store a new rule and assign its id; the first version is 1
+    RegisteredRule create(Node rule);
+
+    // Replace the tree of an existing rule and bump its version
+    Optional<RegisteredRule> update(String id, Node rule);
+
+    Optional<RegisteredRule> find(String id);
+
+    // All rules ordered by id
+    List<RegisteredRule> findAll();
+
+    // The most frequently evaluated rules, hottest first
+    List<RegisteredRule> findHottest(int limit);
+
+    boolean delete(String id);
+
+    // Add evaluation counts, keyed by rule id, collected since the last call
+    void recordEvaluations(Map<String, Long> counts);
+}
@@ -0,0 +1,18 @@
+package com.example.ruleengine;
+
+// Thrown when a rule string cannot be parsed; carries the zero-based character position of the problem
+public class RuleSyntaxException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int position;
+
+    public RuleSyntaxException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
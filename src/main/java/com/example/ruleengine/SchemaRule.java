@@ -0,0 +1,82 @@
+package com.example.ruleengine;
+
+// SchemaRule.java
+// Compiled rule bound to a RecordSchema: every field is resolved to its slot when the rule is
+// compiled, so evaluating a RecordBatch row is a few array reads with no hashing or unboxing.
+// Results and error messages match CompiledRule.evaluate on the equivalent map.
+public interface SchemaRule {
+
+    boolean evaluate(RecordBatch batch, int row);
+
+    // Leaf condition reading one slot; slot is -1 for fields the schema does not declare.
+    record Comparison(int slot, String field, ComparisonOperator operator, String literal, double number, boolean numeric)
+            implements SchemaRule {
+
+        @Override
+        public boolean evaluate(RecordBatch batch, int row) {
+            byte kind = slot < 0 ? RecordBatch.ABSENT : batch.kind(slot, row);
+            if (kind == RecordBatch.STRING) {
+                if (!operator.appliesToStrings()) {
+                    throw new IllegalArgumentException("Invalid operator for String: " + operator.getSymbol());
+                }
+                return literal.equals(batch.string(slot, row)) == (operator == ComparisonOperator.EQ);
+            } else if (kind == RecordBatch.NUMBER) {
+                if (!numeric) {
+                    throw new NumberFormatException("For input string: \"" + literal + "\"");
+                }
+                double value = batch.number(slot, row);
+                return switch (operator) {
+                    case EQ -> value == number;
+                    case NE -> value != number;
+                    case GT -> value > number;
+                    case GE -> value >= number;
+                    case LT -> value < number;
+                    case LE -> value <= number;
+                };
+            }
+            throw new IllegalArgumentException("Unsupported data type for field: " + field);
+        }
+    }
+
+    // Logical AND, stops at the first false child
+    record And(SchemaRule[] children) implements SchemaRule {
+        @Override
+        public boolean evaluate(RecordBatch batch, int row) {
+            for (SchemaRule child : children) {
+                if (!child.evaluate(batch, row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Logical OR, stops at the first true child
+    record Or(SchemaRule[] children) implements SchemaRule {
+        @Override
+        public boolean evaluate(RecordBatch batch, int row) {
+            for (SchemaRule child : children) {
+                if (child.evaluate(batch, row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Logical NOT of a single child
+    record Not(SchemaRule child) implements SchemaRule {
+        @Override
+        public boolean evaluate(RecordBatch batch, int row) {
+            return !child.evaluate(batch, row);
+        }
+    }
+
+    // Fixed outcome of a node folded away by the optimizer
+    record Constant(boolean value) implements SchemaRule {
+        @Override
+        public boolean evaluate(RecordBatch batch, int row) {
+            return value;
+        }
+    }
+}
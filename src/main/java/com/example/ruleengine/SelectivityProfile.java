@@ -0,0 +1,40 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// SelectivityProfile.java
+// Runtime statistics for the conditions of a rule, collected as an EvaluationTracer while the rule is
+// still interpreted. RuleOptimizer uses the observed pass rates to run selective conditions first.
+// Operands that fail with an error are not reported by the tracer and so are not counted.
+public final class SelectivityProfile implements EvaluationTracer {
+
+    private static final class Counts {
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder passed = new LongAdder();
+    }
+
+    private final Map<CompiledRule.Comparison, Counts> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void onOperand(CompiledRule.Comparison operand, boolean result) {
+        Counts operandCounts = counts.computeIfAbsent(operand, key -> new Counts());
+        operandCounts.evaluated.increment();
+        if (result) {
+            operandCounts.passed.increment();
+        }
+    }
+
+    // Observed probability that the condition is true, or the given default if it was never evaluated
+    public double passRate(CompiledRule.Comparison operand, double unknown) {
+        Counts operandCounts = counts.get(operand);
+        long evaluated = operandCounts == null ? 0 : operandCounts.evaluated.sum();
+        return evaluated == 0 ? unknown : (double) operandCounts.passed.sum() / evaluated;
+    }
+
+    public long evaluations(CompiledRule.Comparison operand) {
+        Counts operandCounts = counts.get(operand);
+        return operandCounts == null ? 0 : operandCounts.evaluated.sum();
+    }
+}
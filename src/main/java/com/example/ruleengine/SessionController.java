@@ -0,0 +1,77 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// SessionController.java
+// Incremental evaluation sessions over registered rules. Open a session with a record, e.g.
+//   POST /api/rules/sessions {"rules": ["1", "2"], "data": {"age": 35, "income": 40000}}
+// (omit "rules" for every registered rule), then send only the fields that change,
+//   PATCH /api/rules/sessions/{id} {"income": 60000}
+// and get back the rules whose outcome changed.
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/rules/sessions")
+public class SessionController {
+
+    private final EvaluationSessions sessions;
+
+    public SessionController(EvaluationSessions sessions) {
+        this.sessions = sessions;
+    }
+
+    // Endpoint to open a session; answers with its id and the current outcome of every rule
+    @PostMapping
+    public ResponseEntity<Object> openSession(@RequestBody Map<String, Object> payload) {
+        Map<String, Object> data = RuleEngine.toData(payload.get("data"));
+        if (data == null) {
+            return ResponseEntity.badRequest().body("Missing required field: 'data'");
+        }
+        List<String> ids = null;
+        if (payload.get("rules") != null) {
+            if (!(payload.get("rules") instanceof List<?> rules) || !rules.stream().allMatch(String.class::isInstance)) {
+                return ResponseEntity.badRequest().body("'rules' must be a list of rule ids");
+            }
+            ids = rules.stream().map(String.class::cast).toList();
+        }
+        try {
+            Map.Entry<String, EvaluationSession> opened = sessions.open(ids, data);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", opened.getKey(), "result", opened.getValue().result()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid rule: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
+    }
+
+    // Endpoint to apply changed fields (null removes a field); answers with the rules whose outcome changed
+    @PatchMapping("/{id}")
+    public ResponseEntity<List<EvaluationSession.Change>> updateSession(@PathVariable String id,
+                                                                       @RequestBody Map<String, Object> changes) {
+        return sessions.get(id).map(session -> ResponseEntity.ok(session.update(changes)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RuleMatcher.MatchResult> getSession(@PathVariable String id) {
+        return sessions.get(id).map(session -> ResponseEntity.ok(session.result()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> closeSession(@PathVariable String id) {
+        return sessions.close(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
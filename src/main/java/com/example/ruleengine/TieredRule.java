@@ -0,0 +1,78 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// TieredRule.java
+// Compiled rule that starts out interpreted and, once it has been evaluated threshold times,
+// has MethodHandleCompiler generate its second-tier form on a background executor. The generated
+// rule is published through a volatile field, so callers switch over atomically on their next call.
+// With a SelectivityProfile the interpreted phase also records how often each condition passes, and
+// the rule is reordered by RuleOptimizer from those statistics before it is generated.
+public final class TieredRule implements CompiledRule {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredRule.class);
+
+    private final CompiledRule interpreted;
+    private final int threshold;
+    private final Executor compiler;
+    private final SelectivityProfile profile;
+    private final AtomicInteger invocations = new AtomicInteger();
+    private volatile CompiledRule current;
+
+    // A threshold of zero or less keeps the rule interpreted forever
+    public TieredRule(CompiledRule interpreted, int threshold, Executor compiler) {
+        this(interpreted, threshold, compiler, null);
+    }
+
+    // Profile may be null to generate the rule in its written order
+    public TieredRule(CompiledRule interpreted, int threshold, Executor compiler, SelectivityProfile profile) {
+        this.interpreted = interpreted;
+        this.threshold = threshold;
+        this.compiler = compiler;
+        this.profile = profile;
+        this.current = interpreted;
+    }
+
+    @Override
+    public boolean evaluate(Map<String, Object> data) {
+        CompiledRule rule = current;
+        if (rule != interpreted) {
+            return rule.evaluate(data);
+        }
+        if (threshold > 0 && invocations.incrementAndGet() == threshold) {
+            promote();
+        }
+        return profile == null ? interpreted.evaluate(data) : interpreted.evaluate(data, profile);
+    }
+
+    // Tracing always walks the interpreted tree so every operand is reported
+    @Override
+    public boolean evaluate(Map<String, Object> data, EvaluationTracer tracer) {
+        return interpreted.evaluate(data, tracer);
+    }
+
+    public boolean isPromoted() {
+        return current != interpreted;
+    }
+
+    public CompiledRule getInterpreted() {
+        return interpreted;
+    }
+
+    private void promote() {
+        compiler.execute(() -> {
+            try {
+                CompiledRule tuned = profile == null ? interpreted : RuleOptimizer.optimize(interpreted, profile);
+                current = MethodHandleCompiler.generate(tuned);
+            } catch (RuntimeException e) {
+                // Stay on the interpreter; it is always correct
+                log.warn("Could not generate second-tier evaluator for {}", interpreted, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncRuleControllerTest {
+
+    private AsyncExecution asyncExecution;
+    private ParallelEvaluator parallelEvaluator;
+    private AsyncRuleController controller;
+
+    @BeforeEach
+    void setUp() {
+        asyncExecution = new AsyncExecution("platform", 2, 1);
+        parallelEvaluator = new ParallelEvaluator("forkjoin", 2, 2, 2);
+        controller = controller(asyncExecution, parallelEvaluator, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncExecution.shutdown();
+        parallelEvaluator.shutdown();
+    }
+
+    @Test
+    void testStreamResultsKeepInputOrder() throws IOException {
+        // Arrange: Rule strings, JSON rules, a request without data and a non-object line
+        String body = "{\"rule\": \"age > 30\", \"data\": {\"age\": 35}}\n"
+                + "{\"rules\": {\"operator\": \"AND\", \"left\": {\"operand\": \"age > 30\"}, \"right\": {\"operand\": \"income > 50000\"}},"
+                + " \"data\": {\"age\": 35, \"income\": 40000}}\n"
+                + "{\"rule\": \"age > 30\"}\n"
+                + "{\"rule\": \"age > 30\", \"data\": {\"age\": true}}\n"
+                + "7\n";
+
+        // Act
+        String output = run(body);
+
+        // Assert
+        assertEquals("{\"index\":0,\"result\":true}\n"
+                + "{\"index\":1,\"result\":false}\n"
+                + "{\"index\":2,\"error\":\"Missing required field: 'data'\"}\n"
+                + "{\"index\":3,\"error\":\"Unsupported data type for field: age\"}\n"
+                + "{\"index\":4,\"error\":\"Request must be a JSON object\"}\n", output);
+    }
+
+    @Test
+    void testLongStreamIsEvaluatedThroughTheWindow() throws IOException {
+        // Arrange: Many more requests than the window of two and the single in-flight permit
+        StringBuilder body = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            body.append("{\"rule\": \"age > 50\", \"data\": {\"age\": ").append(i).append("}}\n");
+            expected.append("{\"index\":").append(i).append(",\"result\":").append(i > 50).append("}\n");
+        }
+
+        // Act
+        String output = run(body.toString());
+
+        // Assert
+        assertEquals(expected.toString(), output);
+    }
+
+    @Test
+    void testMalformedStreamReportsErrorAfterValidRequests() throws IOException {
+        // Act
+        String output = run("{\"rule\": \"age > 30\", \"data\": {\"age\": 35}}\n{\"rule\": ");
+
+        // Assert
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"index\":0,\"result\":true}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"index\":1,\"error\":\"Malformed stream input"));
+    }
+
+    @Test
+    void testUnaryEndpointsMatchBlockingController() {
+        // Arrange
+        Map<String, Object> payload = Map.of(
+                "rules", Map.of("rules", Map.of("operator", "AND",
+                        "left", Map.of("operand", "age > 30"), "right", Map.of("operand", "income > 50000"))),
+                "data", Map.of("age", 35, "income", 60000));
+
+        // Act
+        Object result = controller.evaluateRule(payload, false).join().getBody();
+        Node rule = controller.createRule(Map.of("rule", "age > 30")).join().getBody();
+
+        // Assert
+        assertEquals(true, result);
+        assertEquals(RuleEngine.createRule("age > 30"), rule);
+    }
+
+    @Test
+    void testRequestsOverTheLimitAreRejected() throws InterruptedException {
+        // Arrange: Occupy the only in-flight permit
+        CountDownLatch release = new CountDownLatch(1);
+        asyncExecution.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        // Act
+        int status = controller.createRule(Map.of("rule", "age > 30")).join().getStatusCode().value();
+        release.countDown();
+
+        // Assert
+        assertEquals(503, status);
+    }
+
+    private String run(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.evaluateStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static AsyncRuleController controller(AsyncExecution asyncExecution, ParallelEvaluator parallelEvaluator,
+                                                  int streamWindow) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RuleRegistry ruleRegistry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        RuleMetrics ruleMetrics = new RuleMetrics(new SimpleMeterRegistry(), ruleRegistry, 100);
+        RuleController ruleController = new RuleController(ruleRegistry,
+                new BatchEvaluator(objectMapper, parallelEvaluator), objectMapper, new EvaluationTracing(0.0), ruleMetrics);
+        return new AsyncRuleController(ruleController, asyncExecution, objectMapper, ruleMetrics, streamWindow);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchEvaluatorTest {
+
+    private ObjectMapper objectMapper;
+    private ParallelEvaluator parallelEvaluator;
+    private BatchEvaluator batchEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        parallelEvaluator = new ParallelEvaluator("forkjoin", 2, 2, 2);
+        batchEvaluator = new BatchEvaluator(objectMapper, parallelEvaluator);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        parallelEvaluator.shutdown();
+    }
+
+    @Test
+    void testJsonBatchStreamsResultsInOrder() throws IOException {
+        // Arrange: One rule followed by an array of records, one of which has the wrong type
+        String body = "{\"rule\": \"age > 30\", \"data\": [{\"age\": 35}, {\"age\": 25}, {\"age\": true}, 7]}";
+
+        // Act
+        String output = run(body, false);
+
+        // Assert: One line per record, failures reported per record
+        assertEquals("{\"index\":0,\"result\":true}\n"
+                + "{\"index\":1,\"result\":false}\n"
+                + "{\"index\":2,\"error\":\"Unsupported data type for field: age\"}\n"
+                + "{\"index\":3,\"error\":\"Record must be a JSON object\"}\n", output);
+    }
+
+    @Test
+    void testNdjsonBatch() throws IOException {
+        // Arrange: Rule on the first line, then one record per line
+        String body = "{\"rules\": {\"operator\": \"AND\", \"left\": {\"operand\": \"age > 30\"}, \"right\": {\"operand\": \"income > 50000\"}}}\n"
+                + "{\"age\": 35, \"income\": 60000}\n"
+                + "{\"age\": 35, \"income\": 40000}\n";
+
+        // Act
+        String output = run(body, true);
+
+        // Assert
+        assertEquals("{\"index\":0,\"result\":true}\n{\"index\":1,\"result\":false}\n", output);
+    }
+
+    @Test
+    void testReusedChunksDoNotLeakValues() throws IOException {
+        // Arrange: Many small chunks where every other record lacks the field the rule reads
+        StringBuilder body = new StringBuilder("{\"rule\": \"age > 50\", \"data\": [");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            body.append(i == 0 ? "" : ",").append(i % 2 == 0 ? "{\"age\": " + i + "}" : "{\"name\": \"y\"}");
+            expected.append("{\"index\":").append(i).append(i % 2 == 0 ? ",\"result\":" + (i > 50)
+                    : ",\"error\":\"Unsupported data type for field: age\"").append("}\n");
+        }
+        body.append("]}");
+
+        // Act
+        String output = run(body.toString(), false);
+
+        // Assert
+        assertEquals(expected.toString(), output);
+    }
+
+    @Test
+    void testDataBeforeRuleIsRejected() throws IOException {
+        // Arrange: Records cannot be evaluated before the rule is known
+        try (JsonParser parser = objectMapper.createParser("{\"data\": [{\"age\": 35}], \"rule\": \"age > 30\"}")) {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> batchEvaluator.readRule(parser, false));
+        }
+    }
+
+    @Test
+    void testMalformedRuleHeaderIsBadRequest() throws IOException {
+        // Arrange: The rule object is cut short before any record
+        RuleRegistry ruleRegistry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        RuleController controller = new RuleController(ruleRegistry, batchEvaluator, objectMapper, new EvaluationTracing(0.0),
+                new RuleMetrics(new SimpleMeterRegistry(), ruleRegistry, 100));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/rules/evaluate_batch");
+        request.setContent("{\"rules\": {\"operator\": \"AND\", \"left\": }".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        controller.evaluateBatch(request, response);
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().startsWith("Malformed batch input: Unexpected character ('}'"),
+                response.getContentAsString());
+    }
+
+    // Helper method to read the rule and evaluate the records of a batch body
+    private String run(String body, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            CompiledRule rule = batchEvaluator.readRule(parser, ndjson);
+            batchEvaluator.evaluate(rule, parser, out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testParallelBatchesPreserveOrderAndStopReadingAhead() throws IOException, InterruptedException {
+        // Arrange: Many more padded records than fit in one chunk, so input is read well before it is all buffered
+        StringBuilder body = new StringBuilder("{\"rule\": \"age > 50\", \"data\": [");
+        StringBuilder expected = new StringBuilder();
+        String padding = "x".repeat(2000);
+        for (int age = 0; age < 1000; age++) {
+            body.append(age == 0 ? "" : ",").append("{\"age\": ").append(age).append(", \"note\": \"").append(padding).append("\"}");
+            expected.append("{\"index\":").append(age).append(",\"result\":").append(age > 50).append("}\n");
+        }
+        byte[] input = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+        for (String mode : new String[] { "forkjoin", "virtual" }) {
+            ParallelEvaluator wideEvaluator = new ParallelEvaluator(mode, 4, 16, 4);
+            BatchEvaluator wideBatchEvaluator = new BatchEvaluator(objectMapper, wideEvaluator);
+            ByteArrayInputStream in = new ByteArrayInputStream(input);
+            long[] readAtFirstResult = { -1 };
+            ByteArrayOutputStream out = new ByteArrayOutputStream() {
+                @Override
+                public synchronized void write(byte[] bytes, int offset, int length) {
+                    if (readAtFirstResult[0] < 0) {
+                        readAtFirstResult[0] = input.length - in.available();
+                    }
+                    super.write(bytes, offset, length);
+                }
+            };
+
+            try (JsonParser parser = objectMapper.createParser(in)) {
+                // Act
+                CompiledRule rule = wideBatchEvaluator.readRule(parser, false);
+                wideBatchEvaluator.evaluate(rule, parser, out);
+            } finally {
+                wideEvaluator.shutdown();
+            }
+
+            // Assert: Every record is answered at its own position, and the first results were written while
+            // most of the input was still unread (at most the window of chunks plus the parser's buffer ahead)
+            assertEquals(Runtime.version().feature() >= 21 && "virtual".equals(mode), wideEvaluator.isVirtual());
+            assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+            assertTrue(readAtFirstResult[0] > 0 && readAtFirstResult[0] < input.length / 5,
+                    mode + ": " + readAtFirstResult[0] + " of " + input.length + " bytes read");
+        }
+    }
+
+    @Test
+    void testUnknownParallelModeIsRejected() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> new ParallelEvaluator("threads", 2, 2, 2));
+        assertEquals("Unknown parallel mode: threads", exception.getMessage());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.ruleengine;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ColumnarEvaluatorTest {
+
+    @Test
+    void testBitmasksAgreeWithRowByRowEvaluation() {
+        // Arrange: Random rules over a batch spanning several words, with a partial last word,
+        // type mismatches, missing fields and invalid rows
+        Random random = new Random(3);
+        String[] operands = { "age > 30", "age <= 45", "age != 30", "income = 50000", "income > 50000",
+                "department = 'Sales'", "department != 'HR'", "department = 30", "department > 10",
+                "age = 'Sales'", "score < 0.5", "NOT score >= 0.5", "name = 'Alice'" };
+
+        for (int n = 0; n < 200; n++) {
+            Node node = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            for (int i = 0; i < 3; i++) {
+                Node next = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+                node = RuleEngine.combineRules(random.nextInt(4) == 0 ? new Node("operator", "NOT", node, null) : node,
+                        next, random.nextBoolean() ? "AND" : "OR");
+            }
+            CompiledRule compiled = RuleEngine.compile(node);
+            RecordSchema schema = RecordSchema.forRule(compiled);
+            SchemaRule rule = RuleEngine.compile(compiled, schema);
+            RecordBatch batch = new RecordBatch(schema, 16);
+            for (int row = 0; row < 200; row++) {
+                if (random.nextInt(50) == 0) {
+                    batch.addInvalidRow();
+                } else {
+                    batch.add(randomRecord(random));
+                }
+            }
+
+            // Act
+            ColumnarEvaluator.Result result = ColumnarEvaluator.evaluate(rule, batch);
+
+            // Assert: Each row is true, false or an error exactly as when evaluated on its own
+            for (int row = 0; row < batch.size(); row++) {
+                String expected;
+                if (batch.isInvalid(row)) {
+                    expected = "invalid";
+                } else {
+                    try {
+                        expected = String.valueOf(rule.evaluate(batch, row));
+                    } catch (RuntimeException e) {
+                        expected = "error";
+                    }
+                }
+                String actual = batch.isInvalid(row) && !result.matches(row) && !result.isError(row) ? "invalid"
+                        : result.isError(row) ? "error" : String.valueOf(result.matches(row));
+                assertEquals(expected, actual, "Rule " + compiled + " row " + row);
+            }
+        }
+    }
+
+    @Test
+    void testMatchCountForCohortSizing() {
+        // Arrange: 1000 records, ages 0..999
+        RecordSchema schema = RecordSchema.of("age");
+        RecordBatch batch = new RecordBatch(schema, 1000);
+        for (int age = 0; age < 1000; age++) {
+            batch.add(Map.of("age", age));
+        }
+        SchemaRule rule = RuleEngine.compile(RuleEngine.compile(RuleEngine.createRule("age >= 100 AND age < 350")), schema);
+
+        // Act
+        ColumnarEvaluator.Result result = ColumnarEvaluator.evaluate(rule, batch);
+
+        // Assert
+        assertEquals(250, result.matchCount());
+        assertEquals(0, result.errorCount());
+        assertTrue(result.matches(100));
+        assertFalse(result.matches(350));
+    }
+
+    @Test
+    void testScalarKernelsMatchJavaComparisons() {
+        // Arrange: Values include NaN and signed zeros
+        double[] values = new double[64];
+        Random random = new Random(5);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = switch (i % 5) {
+                case 0 -> Double.NaN;
+                case 1 -> -0.0;
+                case 2 -> 0.0;
+                default -> random.nextInt(5);
+            };
+        }
+        ColumnKernels kernels = new ColumnKernels.Scalar();
+
+        for (ComparisonOperator operator : ComparisonOperator.values()) {
+            for (double threshold : new double[] { 0.0, 2.0, Double.NaN }) {
+                // Act
+                long bits = kernels.compare(values, 0, operator, threshold);
+
+                // Assert
+                for (int i = 0; i < values.length; i++) {
+                    CompiledRule.Comparison comparison = CompiledRule.Comparison.of("x", operator, String.valueOf(threshold));
+                    boolean expected = comparison.evaluate(Map.of("x", values[i]));
+                    assertEquals(expected, (bits & (1L << i)) != 0, operator + " " + threshold + " on " + values[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelChunkReportsErrorMessages() {
+        // Arrange
+        CompiledRule compiled = RuleEngine.compile(RuleEngine.createRule("age > 30"));
+        RecordSchema schema = RecordSchema.forRule(compiled);
+        RecordBatch batch = RecordBatch.of(schema, List.of(Map.of("age", 35), Map.of("age", "old")));
+        batch.addInvalidRow();
+
+        // Act
+        ParallelEvaluator.Outcome[] outcomes = ParallelEvaluator.evaluateChunk(RuleEngine.compile(compiled, schema), batch);
+
+        // Assert
+        assertEquals(ParallelEvaluator.Outcome.TRUE, outcomes[0]);
+        assertEquals("Invalid operator for String: >", outcomes[1].error());
+        assertEquals("Record must be a JSON object", outcomes[2].error());
+    }
+
+    private static Map<String, Object> randomRecord(Random random) {
+        Map<String, Object> data = new HashMap<>();
+        if (random.nextInt(10) > 0) {
+            data.put("age", random.nextInt(5) == 0 ? "thirty" : 20 + random.nextInt(40));
+        }
+        data.put("income", random.nextBoolean() ? 50000L : random.nextInt(100000));
+        data.put("department", random.nextInt(5) == 0 ? 30 : random.nextBoolean() ? "Sales" : "HR");
+        if (random.nextBoolean()) {
+            data.put("score", random.nextDouble());
+        }
+        if (random.nextInt(3) == 0) {
+            data.put("name", random.nextBoolean() ? "Alice" : "Bob");
+        }
+        return data;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+class EvaluationSessionTest {
+
+    @Test
+    void testUpdateReportsFlippedRules() {
+        // Arrange
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("highEarner", compile("income > 50000"));
+        rules.put("salesSenior", compile("department = 'Sales' AND age > 40"));
+        rules.put("salesOrRich", compile("department = 'Sales' OR income > 50000"));
+        EvaluationSession session = new EvaluationSession(rules, Map.of("age", 35, "income", 40000, "department", "Sales"));
+
+        // Act
+        List<EvaluationSession.Change> raise = session.update(Map.of("income", 60000));
+        List<EvaluationSession.Change> birthday = session.update(Map.of("age", 36));
+
+        // Assert: "salesOrRich" was already matched through the department
+        assertEquals(List.of(new EvaluationSession.Change("highEarner", true, null)), raise);
+        assertTrue(birthday.isEmpty());
+        assertEquals(List.of("highEarner", "salesOrRich"), session.result().matches());
+        assertEquals(60000, session.getData().get("income"));
+    }
+
+    @Test
+    void testOnlyConditionsOnChangedFieldsRun() {
+        // Arrange: 100 rules over 100 fields, and 100 more sharing the conditions of the first
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            rules.put("r" + i, compile("f" + i + " > 10 AND f" + ((i + 1) % 100) + " < 50"));
+            rules.put("s" + i, compile("f" + i + " > 10 OR f" + ((i + 1) % 100) + " < 50"));
+            data.put("f" + i, 20);
+        }
+        EvaluationSession session = new EvaluationSession(rules, data);
+        long initial = session.getConditionEvaluations();
+
+        // Act
+        List<EvaluationSession.Change> changes = session.update(Map.of("f7", 5));
+
+        // Assert: only the two conditions on f7 ran, and of the four rules reading them only r7 flipped
+        assertEquals(400, session.getCellCount());
+        assertEquals(2, session.getConditionEvaluations() - initial);
+        assertEquals(List.of("r7"), changes.stream().map(EvaluationSession.Change::ruleId).toList());
+    }
+
+    @Test
+    void testFailuresCarryEvaluateRuleMessage() {
+        // Arrange: "department" is missing, which only matters once the rule reaches that operand
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("rule", compile("age > 30 AND department = 'Sales'"));
+        EvaluationSession session = new EvaluationSession(rules, Map.of("age", 25));
+
+        // Act
+        List<EvaluationSession.Change> reaching = session.update(Map.of("age", 35));
+        List<EvaluationSession.Change> fixed = session.update(Map.of("department", "Sales"));
+        Map<String, Object> removal = new HashMap<>();
+        removal.put("age", 20);
+        removal.put("department", null);
+        List<EvaluationSession.Change> removed = session.update(removal);
+
+        // Assert
+        assertEquals(List.of(new EvaluationSession.Change("rule", false, "Unsupported data type for field: department")), reaching);
+        assertEquals(List.of(new EvaluationSession.Change("rule", true, null)), fixed);
+        assertEquals(List.of(new EvaluationSession.Change("rule", false, null)), removed);
+        assertFalse(session.getData().containsKey("department"));
+    }
+
+    @Test
+    void testIncrementalResultsAgreeWithEvaluateRule() {
+        // Arrange: Random rules over a few fields, with records changing one or two fields at a time
+        Random random = new Random(7);
+        String[] operands = { "age > 30", "age < 30", "age = 30", "age >= 30", "age <= 45", "age != 30",
+                "income > 50000", "income < 20000", "income != 50000", "department = 'Sales'",
+                "department != 'HR'", "NOT department = 'Sales'", "score < 0.5", "score >= 0.5" };
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            Node left = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node right = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node third = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node rule = RuleEngine.combineRules(RuleEngine.combineRules(left, right, random.nextBoolean() ? "AND" : "OR"),
+                    third, random.nextBoolean() ? "AND" : "OR");
+            rules.put(String.valueOf(i), RuleOptimizer.optimize(RuleEngine.compile(rule)));
+        }
+        Map<String, Object> data = new HashMap<>(Map.of("age", 30, "income", 50000, "department", "HR"));
+        EvaluationSession session = new EvaluationSession(rules, data);
+        Map<String, String> previous = outcomes(rules, data);
+
+        for (int n = 0; n < 500; n++) {
+            Map<String, Object> changes = new HashMap<>();
+            switch (random.nextInt(5)) {
+                case 0 -> changes.put("age", 20 + random.nextInt(40));
+                case 1 -> changes.put("income", random.nextBoolean() ? 50000 : random.nextInt(100000));
+                case 2 -> changes.put("department", random.nextBoolean() ? "Sales" : "HR");
+                case 3 -> changes.put("score", random.nextBoolean() ? null : random.nextDouble());
+                default -> {
+                    changes.put("age", "unknown");
+                    changes.put("income", random.nextInt(100000));
+                }
+            }
+            changes.forEach((field, value) -> {
+                if (value == null) {
+                    data.remove(field);
+                } else {
+                    data.put(field, value);
+                }
+            });
+
+            // Act
+            List<EvaluationSession.Change> reported = session.update(changes);
+
+            // Assert: exactly the rules that started or stopped matching or failing are reported, with the
+            // outcome evaluateRule gives
+            Map<String, String> expected = outcomes(rules, data);
+            Map<String, String> changed = new LinkedHashMap<>();
+            expected.forEach((id, outcome) -> {
+                if (!kind(outcome).equals(kind(previous.get(id)))) {
+                    changed.put(id, outcome);
+                }
+            });
+            Map<String, String> actual = new LinkedHashMap<>();
+            reported.forEach(change -> actual.put(change.ruleId(), change.error() != null ? "error: " + change.error()
+                    : String.valueOf(change.matched())));
+            assertEquals(changed.keySet(), actual.keySet());
+            actual.forEach((id, outcome) -> assertEquals(expected.get(id), outcome));
+            previous.clear();
+            previous.putAll(expected);
+        }
+    }
+
+    @Test
+    void testIdleSessionsExpireAndFreeTheirSlot() {
+        // Arrange: One slot, a one-second idle timeout and a clock under test control
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        RegisteredRule rule = registry.register(RuleEngine.createRule("age > 30"));
+        AtomicLong now = new AtomicLong();
+        EvaluationSessions sessions = new EvaluationSessions(registry, 1, 1000, now::get);
+        String first = sessions.open(List.of(rule.id()), Map.of("age", 35)).getKey();
+
+        // Act & Assert: a used session stays open, an idle one is closed on lookup or when the slot is needed
+        now.addAndGet(900_000_000L);
+        assertTrue(sessions.get(first).isPresent());
+        assertThrows(IllegalStateException.class, () -> sessions.open(List.of(rule.id()), Map.of()));
+        now.addAndGet(900_000_000L);
+        assertTrue(sessions.get(first).isPresent());
+        now.addAndGet(1_000_000_000L);
+        String second = sessions.open(List.of(rule.id()), Map.of("age", 25)).getKey();
+        assertFalse(sessions.get(first).isPresent());
+        assertEquals(1, sessions.size());
+        now.addAndGet(1_000_000_000L);
+        assertEquals(1, sessions.evictIdle());
+        assertFalse(sessions.get(second).isPresent());
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    void testOpenSessionValidatesPayload() {
+        // Arrange
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        RegisteredRule rule = registry.register(RuleEngine.createRule("age > 30"));
+        SessionController controller = new SessionController(new EvaluationSessions(registry, 10, 60000));
+
+        // Act
+        ResponseEntity<Object> numericIds = controller.openSession(Map.of("rules", List.of(1, 2), "data", Map.of("age", 35)));
+        ResponseEntity<Object> noData = controller.openSession(Map.of("rules", List.of(rule.id()), "data", List.of()));
+        ResponseEntity<Object> opened = controller.openSession(Map.of("rules", List.of(rule.id()), "data", Map.of("age", 35)));
+
+        // Assert
+        assertEquals(400, numericIds.getStatusCode().value());
+        assertEquals("'rules' must be a list of rule ids", numericIds.getBody());
+        assertEquals(400, noData.getStatusCode().value());
+        assertEquals("Missing required field: 'data'", noData.getBody());
+        assertEquals(201, opened.getStatusCode().value());
+    }
+
+    @Test
+    void testConcurrentOpensNeverExceedTheLimit() throws Exception {
+        // Arrange
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        RegisteredRule rule = registry.register(RuleEngine.createRule("age > 30"));
+        EvaluationSessions sessions = new EvaluationSessions(registry, 10, 60000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act
+        try {
+            List<Future<?>> opens = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                opens.add(executor.submit(() -> {
+                    try {
+                        sessions.open(List.of(rule.id()), Map.of("age", 35));
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> open : opens) {
+                open.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(10, sessions.size());
+        assertEquals(90, rejected.get());
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationSessions(registry, 10, 0));
+    }
+
+    // Outcome of each rule evaluated on its own: "true", "false" or "error: " and the message
+    private static Map<String, String> outcomes(Map<String, CompiledRule> rules, Map<String, Object> data) {
+        Map<String, String> outcomes = new LinkedHashMap<>();
+        rules.forEach((id, rule) -> {
+            try {
+                outcomes.put(id, String.valueOf(rule.evaluate(data)));
+            } catch (IllegalArgumentException e) {
+                outcomes.put(id, "error: " + e.getMessage());
+            }
+        });
+        return outcomes;
+    }
+
+    private static String kind(String outcome) {
+        return outcome.startsWith("error") ? "error" : outcome;
+    }
+
+    private static CompiledRule compile(String rule) {
+        return RuleEngine.compile(RuleEngine.createRule(rule));
+    }
+}
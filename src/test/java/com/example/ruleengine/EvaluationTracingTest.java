@@ -0,0 +1,41 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+class EvaluationTracingTest {
+
+    private final CompiledRule rule = RuleEngine.compile(RuleEngine.combineRules(
+            RuleEngine.createRule("age > 30"), RuleEngine.createRule("income > 50000"), "AND"));
+
+    @Test
+    void testExplainReportsEvaluatedOperands() {
+        // Arrange: Tracing only on request
+        EvaluationTracing tracing = new EvaluationTracing(0.0);
+
+        // Act: The first operand fails, so the second is never evaluated
+        EvaluationTracing.TracedResult result = tracing.evaluate(null, rule, Map.of("age", 25, "income", 60000), true);
+
+        // Assert
+        assertFalse(result.result());
+        assertEquals(List.of(new EvaluationTracing.OperandTrace("age > 30", false)), result.operands());
+    }
+
+    @Test
+    void testUntracedEvaluationHasNoOperands() {
+        // Arrange: Sampling disabled and no explain flag
+        EvaluationTracing tracing = new EvaluationTracing(0.0);
+
+        // Act
+        EvaluationTracing.TracedResult result = tracing.evaluate(null, rule, Map.of("age", 35, "income", 60000), false);
+
+        // Assert
+        assertNull(result.operands());
+        assertEquals(true, result.result());
+    }
+}
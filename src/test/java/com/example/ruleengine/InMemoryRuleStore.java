@@ -0,0 +1,61 @@
+package com.example.ruleengine;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Non-durable RuleStore for tests that do not need a database
+public class InMemoryRuleStore implements RuleStore {
+
+    private final Map<String, RegisteredRule> rules = new ConcurrentHashMap<>();
+    private final Map<String, Long> evaluations = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public RegisteredRule create(Node rule) {
+        String id = String.valueOf(idSequence.incrementAndGet());
+        RegisteredRule registered = new RegisteredRule(id, 1, rule);
+        rules.put(id, registered);
+        return registered;
+    }
+
+    @Override
+    public Optional<RegisteredRule> update(String id, Node rule) {
+        return Optional.ofNullable(rules.computeIfPresent(id,
+                (key, current) -> new RegisteredRule(id, current.version() + 1, rule)));
+    }
+
+    @Override
+    public Optional<RegisteredRule> find(String id) {
+        return Optional.ofNullable(rules.get(id));
+    }
+
+    @Override
+    public List<RegisteredRule> findAll() {
+        return rules.values().stream()
+                .sorted(Comparator.comparingLong(rule -> Long.parseLong(rule.id())))
+                .toList();
+    }
+
+    @Override
+    public List<RegisteredRule> findHottest(int limit) {
+        return rules.values().stream()
+                .sorted(Comparator.comparingLong((RegisteredRule rule) -> evaluations.getOrDefault(rule.id(), 0L)).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public boolean delete(String id) {
+        evaluations.remove(id);
+        return rules.remove(id) != null;
+    }
+
+    @Override
+    public void recordEvaluations(Map<String, Long> counts) {
+        counts.forEach((id, count) -> evaluations.merge(id, count, Long::sum));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.ruleengine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest
+@AutoConfigureJson
+@Import(JpaRuleStore.class)
+class JpaRuleStoreTest {
+
+    @Autowired
+    private JpaRuleStore store;
+
+    @Autowired
+    private RuleRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testCreateUpdateAndDelete() {
+        // Arrange
+        Node first = RuleEngine.createRule("age > 30 AND department = 'Sales'");
+        Node second = RuleEngine.createRule("income > 50000");
+
+        // Act
+        RegisteredRule created = store.create(first);
+        RegisteredRule other = store.create(second);
+        RegisteredRule updated = store.update(created.id(), second).orElseThrow();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert: Rules read back are the shared nodes, and updates bump the version
+        assertEquals(1, created.version());
+        assertEquals(2, updated.version());
+        assertSame(second, store.find(created.id()).orElseThrow().rule());
+        assertEquals(List.of(created.id(), other.id()), store.findAll().stream().map(RegisteredRule::id).toList());
+        assertTrue(store.update("not-a-number", first).isEmpty());
+        assertTrue(store.find("not-a-number").isEmpty());
+        assertTrue(store.delete(other.id()));
+        assertFalse(store.delete(other.id()));
+        assertEquals(List.of(created.id()), store.findAll().stream().map(RegisteredRule::id).toList());
+    }
+
+    @Test
+    void testHottestRulesFollowRecordedEvaluations() {
+        // Arrange
+        RegisteredRule cold = store.create(RuleEngine.createRule("age > 30"));
+        RegisteredRule hot = store.create(RuleEngine.createRule("age < 20"));
+
+        // Act
+        store.recordEvaluations(Map.of(hot.id(), 5L, cold.id(), 1L, "unknown", 3L));
+        store.recordEvaluations(Map.of(cold.id(), 2L));
+        entityManager.clear();  // The bulk update bypasses loaded entities
+
+        // Assert
+        assertEquals(List.of(hot.id(), cold.id()), store.findHottest(5).stream().map(RegisteredRule::id).toList());
+        assertEquals(List.of(hot.id()), store.findHottest(1).stream().map(RegisteredRule::id).toList());
+        assertEquals(3, repository.findById(Long.valueOf(cold.id())).orElseThrow().getEvaluationCount());
+    }
+
+    @Test
+    void testNestedNodeJsonRowsAreStillRead() throws Exception {
+        // Arrange: Every node shape, quoted literals and a long chain, stored in the older nested form
+        Node rule = RuleEngine.createRule("(age > 30 AND department = 'Sales, Inc.') OR NOT (income < 5000.5 OR name != 'Zo\u00eb \"Z\"')");
+        Node chain = chain(500);
+
+        for (Node node : new Node[] { rule, chain }) {
+            // Act
+            String json = objectMapper.writeValueAsString(node);
+            Long id = entityManager.persistAndFlush(new RuleEntity(json)).getId();
+            entityManager.clear();
+            RuleEntity stored = repository.findById(id).orElseThrow();
+
+            // Assert: The text survives the LOB column unchanged and reads back as the same shared tree
+            assertEquals(json, stored.getAst());
+            assertEquals(1, stored.getVersion());
+            assertSame(node, store.find(String.valueOf(id)).orElseThrow().rule());
+        }
+    }
+
+    @Test
+    void testRulesAreStoredFlat() throws Exception {
+        // Arrange: A chain far deeper than Jackson's default nesting limit of 1000, and a rule that repeats
+        // a subtree
+        Node chain = chain(5000);
+        Node repeated = RuleEngine.createRule("(age > 30 AND income > 5000) OR NOT (age > 30 AND income > 5000)");
+
+        // Act
+        RegisteredRule storedChain = store.create(chain);
+        RegisteredRule storedRepeated = store.create(repeated);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert: One array entry per distinct node, read back as the same shared trees
+        assertEquals(9999, objectMapper.readTree(ast(storedChain)).size());
+        assertEquals(5, objectMapper.readTree(ast(storedRepeated)).size());
+        assertSame(chain, store.find(storedChain.id()).orElseThrow().rule());
+        assertSame(repeated, store.find(storedRepeated.id()).orElseThrow().rule());
+    }
+
+    @Test
+    void testCorruptFlatRuleIsReported() {
+        // Arrange: The operator refers to a node stored after it
+        Long id = entityManager.persistAndFlush(new RuleEntity("[{\"nodeType\":\"operator\",\"value\":\"NOT\",\"left\":0}]")).getId();
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> store.find(String.valueOf(id)));
+        assertEquals("Stored rule " + id + " cannot be read", exception.getMessage());
+    }
+
+    @Test
+    void testUnreadableStoredRuleIsReported() {
+        // Arrange
+        Long id = entityManager.persistAndFlush(new RuleEntity("{\"nodeType\":\"operand\"")).getId();
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> store.find(String.valueOf(id)));
+        assertEquals("Stored rule " + id + " cannot be read", exception.getMessage());
+    }
+
+    private String ast(RegisteredRule rule) {
+        return repository.findById(Long.valueOf(rule.id())).orElseThrow().getAst();
+    }
+
+    // Helper method to build a left-deep AND chain of the given number of conditions
+    private static Node chain(int length) {
+        Node chain = RuleEngine.createRule("field0 >= 0");
+        for (int i = 1; i < length; i++) {
+            chain = RuleEngine.combineRules(chain, RuleEngine.createRule("field" + i + " >= 0"), "AND");
+        }
+        return chain;
+    }
+}
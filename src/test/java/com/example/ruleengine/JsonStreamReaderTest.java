@@ -0,0 +1,102 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JsonStreamReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRulesMatchMapBasedParsing() throws IOException {
+        // Arrange
+        String single = "{\"operator\": \"AND\", \"left\": {\"operand\": \"age > 30\"}, \"right\": {\"operand\": \"income > 50000\"}}";
+        String list = "[" + single + ", {\"operator\": \"OR\", \"left\": {\"operand\": \"a = 1\"}, \"right\": {\"operand\": \"b = 2\"}}]";
+
+        // Act & Assert: Nodes are shared, so equal trees are the same instance
+        for (String rules : List.of(single, list)) {
+            Node expected = RuleEngine.createRuleFromJson(Map.of("rules", objectMapper.readValue(rules, Object.class)));
+            try (JsonParser parser = objectMapper.createParser(rules)) {
+                parser.nextToken();
+                assertSame(expected, JsonStreamReader.readRules(parser));
+            }
+        }
+    }
+
+    @Test
+    void testPayloadPrefersRuleString() throws IOException {
+        // Act
+        Node fromString = readPayload("{\"rules\": 7, \"rule\": \"age > 30 AND department = 'Sales'\", \"extra\": {\"x\": [1]}}");
+        Node fromJson = readPayload("{\"rule\": \" \", \"rules\": {\"operator\": \"OR\", \"left\": {\"operand\": \"a = 1\"}, \"right\": {\"operand\": \"b = 2\"}}}");
+
+        // Assert
+        assertSame(RuleEngine.createRule("age > 30 AND department = 'Sales'"), fromString);
+        assertSame(RuleEngine.createRule("a = 1 OR b = 2"), fromJson);
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        // Act & Assert: Same messages as the map-based parser
+        Exception missing = assertThrows(IllegalArgumentException.class, () -> readPayload("{\"data\": {}}"));
+        Exception scalar = assertThrows(IllegalArgumentException.class, () -> readPayload("{\"rules\": 7}"));
+        Exception noLeft = assertThrows(IllegalArgumentException.class,
+                () -> readPayload("{\"rules\": {\"operator\": \"AND\", \"right\": {\"operand\": \"a = 1\"}}}"));
+        assertEquals("Invalid JSON structure for rules", missing.getMessage());
+        assertEquals("Rules must be a valid JSON object or a list", scalar.getMessage());
+        assertEquals("left must be a valid JSON object", noLeft.getMessage());
+    }
+
+    @Test
+    void testRecordsAreReadIntoColumns() throws IOException {
+        // Arrange
+        RecordSchema schema = RecordSchema.of("age", "department", "active");
+        RecordBatch batch = new RecordBatch(schema, 64);
+        JsonStreamReader reader = new JsonStreamReader(schema);
+        String records = "{\"age\": 35, \"nested\": {\"age\": 1, \"list\": [1, 2]}, \"department\": \"Sales\", \"active\": true}"
+                + "{\"age\": 35, \"age\": null, \"department\": \"Sales\"}";
+
+        // Act
+        try (JsonParser parser = objectMapper.createParser(records)) {
+            parser.nextToken();
+            reader.readRecord(parser, batch);
+            parser.nextToken();
+            reader.readRecord(parser, batch);
+        }
+
+        // Assert: Unknown and nested fields are skipped, a repeated field keeps its last value
+        assertEquals(2, batch.size());
+        assertEquals(35.0, batch.number(0, 0));
+        assertEquals(RecordBatch.STRING, batch.kind(1, 0));
+        assertEquals(RecordBatch.ABSENT, batch.kind(2, 0));
+        assertEquals(RecordBatch.ABSENT, batch.kind(0, 1));
+        assertSame(batch.string(1, 0), batch.string(1, 1));
+        assertEquals("Sales", batch.string(1, 0));
+        assertNotSame("Sales", batch.string(1, 0));  // Client strings are not interned
+    }
+
+    @Test
+    void testEmptyRuleListYieldsNull() throws IOException {
+        try (JsonParser parser = objectMapper.createParser("[]")) {
+            parser.nextToken();
+            assertNull(JsonStreamReader.readRules(parser));
+        }
+    }
+
+    private Node readPayload(String payload) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(payload)) {
+            parser.nextToken();
+            return JsonStreamReader.readPayload(parser);
+        }
+    }
+}
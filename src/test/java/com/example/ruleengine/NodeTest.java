@@ -0,0 +1,140 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class NodeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testIdenticalSubtreesAreShared() {
+        // Act
+        Node first = RuleEngine.createRule("(age > 30 AND department = 'Sales') OR income > 50000");
+        Node second = RuleEngine.createRule("(age > 30 AND department = 'Sales') AND experience > 5");
+        Node combined = RuleEngine.combineRules(RuleEngine.createRule("age > 30"),
+                RuleEngine.createRule("department = 'Sales'"), "AND");
+
+        // Assert
+        assertSame(first, RuleEngine.createRule("(age > 30 AND department = 'Sales') OR income > 50000"));
+        assertSame(first.getLeft(), second.getLeft());
+        assertSame(first.getLeft(), combined);
+        assertSame(NodeType.OPERATOR, first.getType());
+    }
+
+    @Test
+    void testConstructedTreesCanonicalizeToSharedInstance() {
+        // Arrange
+        Node shared = RuleEngine.createRule("age > 30 AND NOT income > 50000");
+        Node constructed = new Node("operator", "AND", new Node("operand", "age > 30"),
+                new Node("operator", "NOT", new Node("operand", "income > 50000"), null));
+
+        // Act
+        Node canonical = Node.canonical(constructed);
+
+        // Assert
+        assertNotSame(shared, constructed);
+        assertNotEquals(shared, constructed);  // Children are compared by identity
+        assertEquals(shared.hashCode(), constructed.hashCode());
+        assertSame(shared, canonical);
+    }
+
+    @Test
+    void testJsonFormatIsUnchanged() throws Exception {
+        // Arrange
+        Node rule = RuleEngine.createRule("age > 30 AND NOT income > 50000");
+
+        // Act
+        String json = objectMapper.writeValueAsString(rule);
+        Node read = objectMapper.readValue(json, Node.class);
+
+        // Assert
+        assertEquals("{\"nodeType\":\"operator\",\"value\":\"AND\","
+                + "\"left\":{\"nodeType\":\"operand\",\"value\":\"age > 30\",\"left\":null,\"right\":null},"
+                + "\"right\":{\"nodeType\":\"operator\",\"value\":\"NOT\","
+                + "\"left\":{\"nodeType\":\"operand\",\"value\":\"income > 50000\",\"left\":null,\"right\":null},"
+                + "\"right\":null}}", json);
+        assertSame(rule, read);
+    }
+
+    @Test
+    void testLongChainsCanonicalizeWithoutRecursion() {
+        // Arrange: A 10000-deep chain built with the constructors
+        Node chain = new Node("operand", "field0 >= 0");
+        List<Node> conditions = new ArrayList<>();
+        conditions.add(RuleEngine.createRule("field0 >= 0"));
+        for (int i = 1; i < 10000; i++) {
+            chain = new Node("operator", "AND", chain, new Node("operand", "field" + i + " >= 0"));
+            conditions.add(RuleEngine.createRule("field" + i + " >= 0"));
+        }
+
+        // Act
+        Node canonical = Node.canonical(chain);
+
+        // Assert
+        assertSame(RuleEngine.combineRules(conditions, "AND"), canonical);
+    }
+
+    @Test
+    void testLongChainsCompareWithoutRecursionWhileSharedChainIsAlive() {
+        // Arrange: The shared chain stays reachable while an equal constructed chain is canonicalized
+        Node shared = Node.operand("field0 >= 0");
+        Node chain = new Node("operand", "field0 >= 0");
+        for (int i = 1; i < 10000; i++) {
+            shared = Node.operator("AND", shared, Node.operand("field" + i + " >= 0"));
+            chain = new Node("operator", "AND", chain, new Node("operand", "field" + i + " >= 0"));
+        }
+
+        // Act
+        Node canonical = Node.canonical(chain);
+
+        // Assert
+        assertSame(shared, canonical);
+        assertEquals(shared, canonical);
+        assertNotEquals(shared, chain);
+    }
+
+    @Test
+    void testLongChainsWriteWithoutRecursion() throws Exception {
+        // Arrange: A 10000-deep chain, and a mapper configured as the application configures it
+        Node chain = Node.operand("field0 >= 0");
+        for (int i = 1; i < 10000; i++) {
+            chain = Node.operator("AND", chain, Node.operand("field" + i + " >= 0"));
+        }
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new RuleJsonCustomizer().customize(builder);
+        ObjectMapper applicationMapper = builder.build();
+
+        Node rule = chain;
+
+        // Act
+        String json = applicationMapper.writeValueAsString(rule);
+
+        // Assert: Same nested form as short rules, which the default mapper refuses to write
+        assertTrue(json.startsWith("{\"nodeType\":\"operator\",\"value\":\"AND\",\"left\":".repeat(9999)
+                + "{\"nodeType\":\"operand\",\"value\":\"field0 >= 0\",\"left\":null,\"right\":null}"));
+        assertTrue(json.endsWith("{\"nodeType\":\"operand\",\"value\":\"field9999 >= 0\",\"left\":null,\"right\":null}}"));
+        assertEquals(10000, json.split("\"operand\"", -1).length - 1);
+        assertThrows(JsonProcessingException.class, () -> objectMapper.writeValueAsString(rule));
+    }
+
+    @Test
+    void testUnknownNodeTypeIsRejected() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> new Node("branch", "AND"));
+        assertEquals("Unknown node type: branch", exception.getMessage());
+    }
+}
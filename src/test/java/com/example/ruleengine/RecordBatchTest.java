@@ -0,0 +1,176 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RecordBatchTest {
+
+    @Test
+    void testSchemaForRuleResolvesFieldsToSlots() {
+        // Arrange
+        CompiledRule rule = RuleEngine.compile(RuleEngine.createRule(
+                "(age > 30 AND department = 'Sales') OR (income < 20000 AND age < 25)"));
+
+        // Act
+        RecordSchema schema = RecordSchema.forRule(rule);
+
+        // Assert
+        assertEquals(3, schema.size());
+        assertEquals(0, schema.slot("age"));
+        assertEquals(1, schema.slot("department"));
+        assertEquals(2, schema.slot("income"));
+        assertEquals(-1, schema.slot("name"));
+    }
+
+    @Test
+    void testBatchStoresTypedColumnsAndGrows() {
+        // Arrange
+        RecordSchema schema = RecordSchema.of("age", "department");
+        RecordBatch batch = new RecordBatch(schema, 1);
+
+        // Act
+        batch.add(Map.of("age", 35, "department", new String("Sales")));
+        batch.add(Map.of("age", 40L, "department", true));
+        batch.add(Map.of("name", "Bob"));
+
+        // Assert
+        assertEquals(3, batch.size());
+        assertEquals(RecordBatch.NUMBER, batch.kind(0, 0));
+        assertEquals(35.0, batch.number(0, 0));
+        assertEquals("Sales", batch.string(1, 0));
+        assertEquals(40.0, batch.number(0, 1));
+        assertEquals(RecordBatch.ABSENT, batch.kind(1, 1));
+        assertEquals(RecordBatch.ABSENT, batch.kind(0, 2));
+    }
+
+    @Test
+    void testStringsAreDictionaryEncodedWithoutInterning() {
+        // Arrange: Equal values arriving as distinct, never-interned instances
+        RecordSchema schema = RecordSchema.of("department", "city");
+        RecordBatch batch = new RecordBatch(schema, 64);
+        String value = new String("Sales-" + System.nanoTime());
+
+        // Act
+        batch.add(Map.of("department", value, "city", "Paris"));
+        batch.add(Map.of("department", new String(value), "city", "Sales"));
+        batch.add(Map.of("department", "HR"));
+        SchemaRule rule = RuleEngine.compile(RuleEngine.compile(RuleEngine.createRule("department = '" + value + "'")), schema);
+
+        // Assert: Codes are per slot, and matching does not depend on instance identity
+        assertNotSame(value.intern(), batch.string(0, 0));
+        assertEquals(batch.code(0, value), batch.codeColumn(0)[1]);
+        assertEquals(0, batch.code(0, value));
+        assertEquals(1, batch.code(0, "HR"));
+        assertEquals(-1, batch.code(0, "Paris"));
+        assertEquals(1, batch.code(1, "Sales"));
+        assertTrue(rule.evaluate(batch, 0));
+        assertTrue(rule.evaluate(batch, 1));
+        assertFalse(rule.evaluate(batch, 2));
+        ColumnarEvaluator.Result columnar = ColumnarEvaluator.evaluate(rule, batch);
+        assertTrue(columnar.matches(0) && columnar.matches(1));
+        assertFalse(columnar.matches(2));
+
+        // Act & Assert: Clearing the batch starts a new dictionary
+        batch.clear();
+        batch.add(Map.of("department", "HR"));
+        assertEquals(0, batch.code(0, "HR"));
+        assertEquals(-1, batch.code(0, value));
+    }
+
+    @Test
+    void testUndeclaredFieldFailsLikeMissingMapEntry() {
+        // Arrange: The schema does not declare "department"
+        SchemaRule rule = RuleEngine.compile(RuleEngine.compile(RuleEngine.createRule("department = 'Sales'")),
+                RecordSchema.of("age"));
+        RecordBatch batch = RecordBatch.of(RecordSchema.of("age"), List.of(Map.of("age", 35)));
+
+        // Act
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> rule.evaluate(batch, 0));
+
+        // Assert
+        assertEquals("Unsupported data type for field: department", error.getMessage());
+    }
+
+    @Test
+    void testSchemaRulesAgreeWithMapEvaluation() {
+        // Arrange: Random rules, records with type mismatches and missing fields
+        Random random = new Random(11);
+        String[] operands = { "age > 30", "age <= 45", "age != 30", "income = 50000", "income > 50000",
+                "department = 'Sales'", "department != 'HR'", "department = 30", "department > 10",
+                "age = 'Sales'", "score < 0.5", "NOT score >= 0.5" };
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> data = new HashMap<>();
+            if (random.nextInt(10) > 0) {
+                data.put("age", random.nextInt(5) == 0 ? "thirty" : 20 + random.nextInt(40));
+            }
+            data.put("income", random.nextBoolean() ? 50000L : random.nextInt(100000));
+            data.put("department", random.nextInt(5) == 0 ? 30 : random.nextBoolean() ? "Sales" : "HR");
+            if (random.nextBoolean()) {
+                data.put("score", random.nextDouble());
+            }
+            records.add(data);
+        }
+
+        for (int n = 0; n < 200; n++) {
+            Node node = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            for (int i = 0; i < 3; i++) {
+                node = RuleEngine.combineRules(node, RuleEngine.createRule(operands[random.nextInt(operands.length)]),
+                        random.nextBoolean() ? "AND" : "OR");
+            }
+            CompiledRule rule = RuleEngine.compile(node);
+            RecordSchema schema = RecordSchema.forRule(rule);
+            SchemaRule bound = RuleEngine.compile(rule, schema);
+            RecordBatch batch = RecordBatch.of(schema, records);
+
+            for (int row = 0; row < records.size(); row++) {
+                // Act
+                Map<String, Object> data = records.get(row);
+                int current = row;
+                String expected = outcome(() -> rule.evaluate(data));
+                String actual = outcome(() -> bound.evaluate(batch, current));
+
+                // Assert
+                assertEquals(expected, actual, "Rule " + rule + " on " + data);
+            }
+        }
+    }
+
+    @Test
+    void testTieredRulesCompileAgainstTheirInterpretedTree() {
+        // Arrange
+        TieredRule rule = new TieredRule(RuleEngine.compile(RuleEngine.createRule("age > 30")), 1, Runnable::run);
+        rule.evaluate(Map.of("age", 40));
+        RecordSchema schema = RecordSchema.forRule(rule);
+
+        // Act
+        SchemaRule bound = RuleEngine.compile(rule, schema);
+        RecordBatch batch = RecordBatch.of(schema, List.of(Map.of("age", 40), Map.of("age", 20)));
+
+        // Assert
+        assertTrue(bound.evaluate(batch, 0));
+        assertFalse(bound.evaluate(batch, 1));
+    }
+
+    private interface Evaluation {
+        boolean run();
+    }
+
+    private static String outcome(Evaluation evaluation) {
+        try {
+            return String.valueOf(evaluation.run());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.ruleengine;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -94,4 +96,60 @@ class RuleEngineTest {
             ruleEngine.createRuleFromJson(invalidRules);
         });
     }
+
+    @Test
+    void testCompiledRuleEvaluatesStringsAndNumbers() {
+        // Arrange: Compile a rule once
+        CompiledRule rule = ruleEngine.compile(ruleEngine.createRule("department = 'Sales'"));
+
+        // Act & Assert: The compiled form can be evaluated repeatedly
+        assertTrue(ruleEngine.evaluateRule(rule, Map.of("department", "Sales")));
+        assertFalse(ruleEngine.evaluateRule(rule, Map.of("department", "Marketing")));
+    }
+
+    @Test
+    void testCompiledRuleShortCircuits() {
+        // Arrange: The right operand would fail on a missing field if it were evaluated
+        Node left = ruleEngine.createRule("age > 30");
+        Node right = ruleEngine.createRule("income > 50000");
+        CompiledRule andRule = ruleEngine.compile(ruleEngine.combineRules(left, right, "AND"));
+        CompiledRule orRule = ruleEngine.compile(ruleEngine.combineRules(left, right, "OR"));
+
+        // Act & Assert: Only the left operand is needed to decide
+        assertFalse(ruleEngine.evaluateRule(andRule, Map.of("age", 25)));
+        assertTrue(ruleEngine.evaluateRule(orRule, Map.of("age", 35)));
+    }
+
+    @Test
+    void testCompileRejectsInvalidOperand() {
+        // Act & Assert: Malformed operands are rejected at compile time
+        assertThrows(IllegalArgumentException.class, () -> {
+            ruleEngine.compile(new Node("operand", "age >"));
+        });
+    }
+
+    @Test
+    void testCreateRuleKeepsLogicalOperators() {
+        // Arrange: Only the first operand holds
+        Node ruleNode = ruleEngine.createRule("age > 30 AND income > 50000");
+
+        // Act & Assert: Both sides of the AND are evaluated
+        assertEquals("AND", ruleNode.getValue());
+        assertFalse(ruleEngine.evaluateRule(ruleNode, Map.of("age", 35, "income", 40000)));
+    }
+
+    @Test
+    void testToDataCopiesJsonObjectsOnly() {
+        // Arrange
+        Map<String, Object> object = new HashMap<>(Map.of("age", 35));
+
+        // Act
+        Map<String, Object> data = RuleEngine.toData(object);
+        object.put("income", 40000);
+
+        // Assert: A copy of objects; anything else is not record data
+        assertEquals(Map.of("age", 35), data);
+        assertNull(RuleEngine.toData(List.of(35)));
+        assertNull(RuleEngine.toData(null));
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleMatcherTest {
+
+    @Test
+    void testSharedConditionsAreDeduplicated() {
+        // Arrange: Three rules built from only three distinct conditions
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("a", compile("age > 30", "income > 50000", "AND"));
+        rules.put("b", compile("age > 30", "department = 'Sales'", "OR"));
+        rules.put("c", compile("income > 50000", "department = 'Sales'", "AND"));
+
+        // Act
+        RuleMatcher matcher = RuleMatcher.build(rules);
+        RuleMatcher.MatchResult result = matcher.match(Map.of("age", 35, "income", 40000, "department", "Sales"));
+
+        // Assert
+        assertEquals(3, matcher.getConditionCount());
+        assertEquals(List.of("b"), result.matches());
+        assertTrue(result.errors().isEmpty());
+    }
+
+    @Test
+    void testErrorsFollowEvaluationOrder() {
+        // Arrange: "department" is missing, which only matters if the rule reaches that operand
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("shortCircuit", compile("age < 30", "department = 'Sales'", "AND"));
+        rules.put("reaches", compile("age > 30", "department = 'Sales'", "AND"));
+
+        // Act
+        RuleMatcher.MatchResult result = RuleMatcher.build(rules).match(Map.of("age", 35));
+
+        // Assert
+        assertTrue(result.matches().isEmpty());
+        assertEquals(List.of("reaches"), new ArrayList<>(result.errors().keySet()));
+    }
+
+    @Test
+    void testRulesThatHoldWithNoTrueConditionMatch() {
+        // Arrange: Negated rules match records that make none of their conditions true
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("notSales", RuleEngine.compile(RuleEngine.createRule("NOT department = 'Sales'")));
+        rules.put("neither", RuleEngine.compile(RuleEngine.createRule("NOT (age > 30 OR department = 'Sales')")));
+        rules.put("sales", RuleEngine.compile(RuleEngine.createRule("department = 'Sales'")));
+        RuleMatcher matcher = RuleMatcher.build(rules);
+
+        // Act
+        RuleMatcher.MatchResult hr = matcher.match(Map.of("age", 25, "department", "HR"));
+        RuleMatcher.MatchResult sales = matcher.match(Map.of("age", 25, "department", "Sales"));
+        RuleMatcher.MatchResult missing = matcher.match(Map.of("age", 25));
+
+        // Assert
+        assertEquals(List.of("notSales", "neither"), hr.matches());
+        assertEquals(List.of("sales"), sales.matches());
+        assertTrue(missing.matches().isEmpty());
+        assertEquals(List.of("notSales", "neither", "sales"), new ArrayList<>(missing.errors().keySet()));
+    }
+
+    @Test
+    void testMatchesAgreeWithEvaluateRule() {
+        // Arrange: Random rules over a few fields and thresholds
+        Random random = new Random(42);
+        String[] operands = { "age > 30", "age < 30", "age = 30", "age > 45", "age >= 30", "age <= 45", "age != 30",
+                "income > 50000", "income < 20000", "income = 50000", "income != 50000", "department = 'Sales'",
+                "department = 'HR'", "department != 'HR'", "NOT department = 'Sales'", "score < 0.5", "score >= 0.5" };
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            Node left = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node right = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node third = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            Node rule = RuleEngine.combineRules(RuleEngine.combineRules(left, right, random.nextBoolean() ? "AND" : "OR"),
+                    third, random.nextBoolean() ? "AND" : "OR");
+            rules.put(String.valueOf(i), RuleEngine.compile(rule));
+        }
+        RuleMatcher matcher = RuleMatcher.build(rules);
+
+        for (int n = 0; n < 500; n++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("age", 20 + random.nextInt(40));
+            data.put("income", random.nextBoolean() ? 50000 : random.nextInt(100000));
+            data.put("department", random.nextBoolean() ? "Sales" : "HR");
+            if (random.nextBoolean()) {
+                data.put("score", random.nextDouble());
+            }
+
+            // Act
+            RuleMatcher.MatchResult result = matcher.match(data);
+
+            // Assert: Same answer as evaluating each rule on its own
+            for (Map.Entry<String, CompiledRule> rule : rules.entrySet()) {
+                try {
+                    boolean expected = rule.getValue().evaluate(data);
+                    assertEquals(expected, result.matches().contains(rule.getKey()));
+                    assertTrue(!result.errors().containsKey(rule.getKey()));
+                } catch (IllegalArgumentException e) {
+                    assertTrue(result.errors().containsKey(rule.getKey()));
+                }
+            }
+        }
+    }
+
+    // Helper method to compile two operands combined with an operator
+    private static CompiledRule compile(String left, String right, String operator) {
+        return RuleEngine.compile(RuleEngine.combineRules(RuleEngine.createRule(left), RuleEngine.createRule(right), operator));
+    }
+}
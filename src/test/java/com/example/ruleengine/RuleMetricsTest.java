@@ -0,0 +1,112 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RuleMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleRegistry ruleRegistry;
+    private RuleMetrics ruleMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ruleRegistry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 10, 60000);
+        ruleMetrics = new RuleMetrics(meterRegistry, ruleRegistry, 2);
+    }
+
+    @Test
+    void testRuleTagsAreCappedWithOverflowTaggedOther() {
+        // Act: Four rules against a cap of two
+        for (String id : new String[] { "1", "2", "3", "4", "1" }) {
+            ruleMetrics.evaluate(id, () -> true);
+        }
+
+        // Assert
+        assertEquals(2, meterRegistry.get("ruleengine.evaluate").tag("rule", "1").timer().count());
+        assertEquals(1, meterRegistry.get("ruleengine.evaluate").tag("rule", "2").timer().count());
+        assertEquals(2, meterRegistry.get("ruleengine.evaluate").tag("rule", "other").timer().count());
+        assertNull(meterRegistry.find("ruleengine.evaluate").tag("rule", "3").timer());
+        assertEquals(3, meterRegistry.find("ruleengine.evaluate").timers().size());
+    }
+
+    @Test
+    void testErrorsAreCountedByEndpointAndType() {
+        // Act
+        ruleMetrics.error("create_rule", new IllegalArgumentException("Invalid rule"));
+        ruleMetrics.error("create_rule", new IllegalArgumentException("Invalid rule"));
+        ruleMetrics.error("evaluate_rule", new ClassCastException());
+        ruleMetrics.error("register_rule", new UnsupportedOperationException());
+        ruleMetrics.error("evaluate_rule", new IllegalStateException());
+
+        // Assert
+        assertEquals(2.0, errors("create_rule", "invalid_rule"));
+        assertEquals(1.0, errors("evaluate_rule", "invalid_payload"));
+        assertEquals(1.0, errors("register_rule", "read_only"));
+        assertEquals(1.0, errors("evaluate_rule", "unexpected"));
+        assertEquals(4, meterRegistry.find("ruleengine.errors").counters().size());
+    }
+
+    @Test
+    void testCacheCountersFollowRegistryStats() {
+        // Arrange
+        RegisteredRule rule = ruleRegistry.register(RuleEngine.createRule("age > 30"));
+
+        // Act: One compilation and one cached lookup, then one computed and one memoized result
+        ruleRegistry.getCompiled(rule.id());
+        CompiledRule memoized = ruleRegistry.getMemoized(rule.id()).orElseThrow();
+        memoized.evaluate(Map.of("age", 35));
+        memoized.evaluate(Map.of("age", 35));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("ruleengine.cache.misses").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("ruleengine.cache.hits").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("ruleengine.cache.evictions").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("ruleengine.cache.hit.ratio").gauge().value());
+        assertEquals(1, meterRegistry.get("ruleengine.cache.compile").functionTimer().count());
+        assertEquals(1.0, meterRegistry.get("ruleengine.results.misses").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("ruleengine.results.hits").functionCounter().count());
+    }
+
+    @Test
+    void testTimersPublishHistogramBuckets() {
+        // Arrange: Record the distribution settings of every meter as it is registered
+        SimpleMeterRegistry histograms = new SimpleMeterRegistry();
+        Map<String, DistributionStatisticConfig> configs = new ConcurrentHashMap<>();
+        histograms.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                configs.put(id.getName(), config);
+                return config;
+            }
+        });
+        RuleMetrics metrics = new RuleMetrics(histograms, ruleRegistry, 2);
+
+        // Act
+        metrics.parse("string", () -> RuleEngine.createRule("age > 30"));
+        metrics.evaluate("1", () -> true);
+
+        // Assert: Every timer exposes buckets that can be aggregated across instances, plus local percentiles
+        for (String name : new String[] { "ruleengine.compile", "ruleengine.match", "ruleengine.parse", "ruleengine.evaluate" }) {
+            assertTrue(configs.get(name).isPercentileHistogram(), name);
+            assertArrayEquals(new double[] { 0.5, 0.99 }, configs.get(name).getPercentiles(), name);
+        }
+    }
+
+    private double errors(String endpoint, String type) {
+        return meterRegistry.get("ruleengine.errors").tag("endpoint", endpoint).tag("type", type).counter().count();
+    }
+}
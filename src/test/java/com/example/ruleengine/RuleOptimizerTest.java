@@ -0,0 +1,183 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleOptimizerTest {
+
+    private static final String[] OPERANDS = { "age > 30", "age > 40", "age >= 30", "age < 50", "age <= 30",
+            "age = 30", "age = 40", "age != 30", "age = '30'", "age != 'thirty'", "age > 'x'", "age != NaN",
+            "age < NaN", "income > 10", "income <= 10", "income = 5", "NOT age > 35" };
+    // Conditions that can never fail on a numeric value
+    private static final String[] NUMERIC_OPERANDS = { "age > 30", "age > 40", "age >= 30", "age < 50",
+            "age <= 30", "age = 30", "age != 30", "age < NaN", "income > 10", "income <= 10", "NOT age > 35" };
+
+    @Test
+    void testLongChainsCompileIntoOneNaryNode() {
+        // Arrange: 10000 conditions ANDed by combineRules into a 10000-deep left-leaning tree
+        List<Node> conditions = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            conditions.add(RuleEngine.createRule("field" + i + " >= 0"));
+        }
+        Node chain = RuleEngine.combineRules(conditions, "AND");
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            data.put("field" + i, i);
+        }
+
+        // Act
+        CompiledRule rule = RuleEngine.compile(chain);
+        CompiledRule generated = MethodHandleCompiler.generate(rule);
+
+        // Assert
+        assertTrue(rule instanceof CompiledRule.And);
+        assertEquals(10000, ((CompiledRule.And) rule).children().length);
+        assertTrue(rule.evaluate(data));
+        assertTrue(generated.evaluate(data));
+        data.put("field9999", -1);
+        assertFalse(rule.evaluate(data));
+        assertFalse(generated.evaluate(data));
+    }
+
+    @Test
+    void testImpliedAndDuplicateConditionsAreDropped() {
+        // Act
+        CompiledRule merged = optimize("age > 30 AND age > 40");
+        CompiledRule implied = optimize("age > 40 AND department = 'Sales' AND age > 30");
+        CompiledRule widened = optimize("age > 40 OR age > 50");
+        CompiledRule repeated = optimize("department = 'Sales' AND (age > 30 AND department = 'Sales')");
+        CompiledRule doubleNegation = optimize("NOT NOT age > 30");
+
+        // Assert
+        assertEquals(comparison("age > 40"), merged);
+        assertEquals("[age > 40, department = Sales]", List.of(((CompiledRule.And) implied).children()).toString());
+        assertEquals(comparison("age > 40"), widened);
+        assertEquals("[department = Sales, age > 30]", List.of(((CompiledRule.And) repeated).children()).toString());
+        assertEquals(comparison("age > 30"), doubleNegation);
+    }
+
+    @Test
+    void testExactRewritesKeepResultsAndErrors() {
+        // Arrange: Random rules full of overlapping conditions on the same field
+        Random random = new Random(21);
+        for (int n = 0; n < 500; n++) {
+            CompiledRule rule = RuleEngine.compile(randomRule(random, OPERANDS));
+
+            // Act
+            CompiledRule optimized = RuleOptimizer.optimize(rule);
+
+            // Assert: Same outcome and same error message for every record, including invalid ones
+            for (int i = 0; i < 40; i++) {
+                Map<String, Object> data = randomRecord(random, true);
+                assertEquals(outcome(rule, data), outcome(optimized, data), "Rule " + rule + " on " + data);
+            }
+        }
+    }
+
+    @Test
+    void testContradictionsFoldToFalse() {
+        // Act
+        CompiledRule exact = optimize("age > 40 AND age < 30");
+        CompiledRule folded = RuleOptimizer.optimize(exact, new SelectivityProfile());
+
+        // Assert: The exact pass keeps both because a record without "age" must still fail with an error
+        assertTrue(exact instanceof CompiledRule.And);
+        assertEquals(CompiledRule.Constant.FALSE, folded);
+        assertEquals(CompiledRule.Constant.TRUE, RuleOptimizer.optimize(optimize("NOT (age > 40 AND age < 30)"),
+                new SelectivityProfile()));
+    }
+
+    @Test
+    void testSelectiveConditionsRunFirst() {
+        // Arrange: "department = 'Sales'" is rarely true, "age > 30" almost always
+        CompiledRule rule = optimize("age > 30 AND department = 'Sales'");
+        SelectivityProfile profile = new SelectivityProfile();
+        for (int i = 0; i < 100; i++) {
+            rule.evaluate(Map.of("age", 40, "department", i % 10 == 0 ? "Sales" : "HR"), profile);
+        }
+
+        // Act
+        CompiledRule reordered = RuleOptimizer.optimize(rule, profile);
+
+        // Assert
+        assertEquals("[department = Sales, age > 30]", List.of(((CompiledRule.And) reordered).children()).toString());
+        assertEquals(0.1, profile.passRate(comparison("department = 'Sales'"), 0.5), 1e-9);
+    }
+
+    @Test
+    void testProfiledRewritesAgreeOnValidRecords() {
+        // Arrange: Numeric conditions over records where every field is a number, so nothing can fail
+        Random random = new Random(22);
+        for (int n = 0; n < 500; n++) {
+            CompiledRule rule = RuleEngine.compile(randomRule(random, NUMERIC_OPERANDS));
+            SelectivityProfile profile = new SelectivityProfile();
+            List<Map<String, Object>> records = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                records.add(randomRecord(random, false));
+            }
+            for (Map<String, Object> data : records) {
+                rule.evaluate(data, profile);
+            }
+
+            // Act
+            CompiledRule optimized = RuleOptimizer.optimize(rule, profile);
+
+            // Assert
+            for (Map<String, Object> data : records) {
+                assertEquals(rule.evaluate(data), optimized.evaluate(data), "Rule " + rule + " on " + data);
+            }
+        }
+    }
+
+    private static CompiledRule optimize(String rule) {
+        return RuleOptimizer.optimize(RuleEngine.compile(RuleEngine.createRule(rule)));
+    }
+
+    private static CompiledRule.Comparison comparison(String operand) {
+        return RuleParser.parseComparison(operand);
+    }
+
+    private static Node randomRule(Random random, String[] operands) {
+        Node node = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+        for (int i = 0; i < 1 + random.nextInt(4); i++) {
+            Node next = RuleEngine.createRule(operands[random.nextInt(operands.length)]);
+            if (random.nextInt(4) == 0) {
+                next = RuleEngine.combineRules(next, RuleEngine.createRule(operands[random.nextInt(operands.length)]),
+                        random.nextBoolean() ? "AND" : "OR");
+            }
+            node = RuleEngine.combineRules(node, next, random.nextBoolean() ? "AND" : "OR");
+        }
+        return node;
+    }
+
+    private static Map<String, Object> randomRecord(Random random, boolean invalid) {
+        Map<String, Object> data = new HashMap<>();
+        int age = random.nextInt(5);
+        if (invalid && age == 0) {
+            data.put("age", random.nextBoolean() ? "30" : "thirty");
+        } else if (!invalid || age > 1) {
+            double[] ages = { 20, 30, 35, 40, 45, 50, 60, Double.NaN };
+            data.put("age", ages[random.nextInt(ages.length)]);
+        }
+        if (!invalid || random.nextBoolean()) {
+            data.put("income", random.nextInt(20));
+        }
+        return data;
+    }
+
+    private static String outcome(CompiledRule rule, Map<String, Object> data) {
+        try {
+            return String.valueOf(rule.evaluate(data));
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ruleengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RulePackTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRulesRoundTripThroughMappedFile() throws IOException {
+        // Arrange
+        List<RegisteredRule> rules = List.of(
+                new RegisteredRule("2", 3, RuleEngine.createRule("(age > 30 AND department = 'Sales') OR income > 50000")),
+                new RegisteredRule("1", 1, RuleEngine.createRule("NOT experience > 5")),
+                new RegisteredRule("10", 2, RuleEngine.createRule("name = 'Zo\u00eb'")));
+        Path file = directory.resolve("rules.rpak");
+
+        // Act
+        RulePack.write(file, rules);
+        RulePack pack = RulePack.open(file);
+
+        // Assert
+        assertEquals(3, pack.size());
+        assertEquals(List.of("1", "10", "2"), List.of(pack.idAt(0), pack.idAt(1), pack.idAt(2)));
+        for (RegisteredRule rule : rules) {
+            RegisteredRule read = pack.find(rule.id()).orElseThrow();
+            assertEquals(rule.version(), read.version());
+            assertSame(rule.rule(), read.rule());  // Decoded into the canonical, shared nodes
+        }
+        assertTrue(pack.find("3").isEmpty());
+        assertTrue(RuleEngine.evaluateRule(pack.find("2").orElseThrow().rule(), Map.of("age", 35, "department", "Sales")));
+    }
+
+    @Test
+    void testSharedSubtreesAreWrittenOnce() throws IOException {
+        // Arrange
+        Node shared = RuleEngine.createRule("(age > 30 AND department = 'Sales') OR (income > 50000 AND experience > 5)");
+        List<RegisteredRule> one = List.of(new RegisteredRule("1", 1, shared));
+        List<RegisteredRule> many = List.of(new RegisteredRule("1", 1, shared),
+                new RegisteredRule("2", 1, RuleEngine.combineRules(shared, RuleEngine.createRule("age < 60"), "AND")));
+
+        // Act
+        int oneSize = bytes(one).length;
+        int manySize = bytes(many).length;
+
+        // Assert: the second rule only adds its own root, one new condition and its index entry
+        assertTrue(manySize - oneSize < 80, "Second rule took " + (manySize - oneSize) + " bytes");
+        assertSame(many.get(1).rule(), RulePack.of(bytes(many)).find("2").orElseThrow().rule());
+    }
+
+    @Test
+    void testPackIsSmallerThanJson() throws IOException {
+        // Arrange
+        List<RegisteredRule> rules = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rules.add(new RegisteredRule(String.valueOf(i), 1,
+                    RuleEngine.createRule("(age > " + i + " AND department = 'Sales') OR income > 50000")));
+        }
+
+        // Act
+        int packSize = bytes(rules).length;
+        int jsonSize = new ObjectMapper().writeValueAsBytes(rules).length;
+
+        // Assert
+        assertTrue(packSize * 3 < jsonSize, "Pack " + packSize + " bytes, JSON " + jsonSize + " bytes");
+    }
+
+    @Test
+    void testDeepTreesAreWrittenAndReadWithoutRecursion() throws IOException {
+        // Arrange
+        Node rule = RuleEngine.createRule("age > 0");
+        for (int i = 1; i < 10_000; i++) {
+            rule = Node.operator("AND", rule, RuleEngine.createRule("age > " + i));
+        }
+
+        // Act
+        RulePack pack = RulePack.of(bytes(List.of(new RegisteredRule("deep", 1, rule))));
+
+        // Assert
+        assertSame(rule, pack.find("deep").orElseThrow().rule());
+    }
+
+    @Test
+    void testRejectsForeignAndNewerFiles() throws IOException {
+        // Arrange
+        byte[] valid = bytes(List.of(new RegisteredRule("1", 1, RuleEngine.createRule("age > 30"))));
+        byte[] foreign = "{\"rules\": []}".getBytes();
+        byte[] newer = valid.clone();
+        newer[7] = (byte) (RulePack.FORMAT_VERSION + 1);
+        Path empty = Files.createFile(directory.resolve("empty.rpak"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RulePack.of(foreign));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> RulePack.of(newer));
+        assertTrue(error.getMessage().contains("version"));
+        assertThrows(IllegalArgumentException.class, () -> RulePack.open(empty));
+        assertFalse(RulePack.of(valid).find("1").isEmpty());
+    }
+
+    @Test
+    void testRejectsCyclicNodeReferences() throws IOException {
+        // Arrange: point the root operator's left child back at the root itself
+        byte[] bytes = bytes(List.of(new RegisteredRule("1", 1, RuleEngine.createRule("age > 30 AND income > 50000"))));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int nodeBase = buffer.getInt(16);
+        int root = buffer.getInt(20 + 12);
+        buffer.putInt(nodeBase + root + 5, root);
+
+        // Act
+        RulePack pack = RulePack.of(bytes);
+
+        // Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> pack.find("1"));
+        assertEquals("Corrupt rule pack", error.getMessage());
+    }
+
+    @Test
+    void testTruncatedAndDamagedPacksFailCleanly() throws IOException {
+        // Arrange
+        byte[] valid = bytes(List.of(
+                new RegisteredRule("1", 1, RuleEngine.createRule("(age > 30 AND department = 'Sales') OR income > 50000")),
+                new RegisteredRule("2", 1, RuleEngine.createRule("NOT age > 30"))));
+
+        // Act & Assert: every truncation and every single-byte change either reads or fails as corrupt
+        for (int length = 0; length < valid.length; length++) {
+            // A new file each time; rewriting a file that is still mapped is slow on some file systems
+            Path file = Files.write(directory.resolve("truncated-" + length + ".rpak"), Arrays.copyOf(valid, length));
+            assertReadsOrRejects(() -> readAll(RulePack.open(file)));
+        }
+        for (int i = 0; i < valid.length; i++) {
+            for (byte value : new byte[] { 0, 1, 0x7F, (byte) 0x80, (byte) 0xFF }) {
+                byte[] damaged = valid.clone();
+                damaged[i] = value;
+                assertReadsOrRejects(() -> readAll(RulePack.of(damaged)));
+            }
+        }
+    }
+
+    @Test
+    void testPackStoreServesRulesReadOnly() throws IOException {
+        // Arrange
+        RulePackStore store = new RulePackStore(RulePack.of(bytes(List.of(
+                new RegisteredRule("1", 1, RuleEngine.createRule("age > 30")),
+                new RegisteredRule("2", 4, RuleEngine.createRule("income > 50000"))))));
+        RuleRegistry registry = new RuleRegistry(store, 100, 0, false, 0, 60000);
+        store.recordEvaluations(Map.of("2", 5L));
+
+        // Act
+        boolean result = registry.getCompiled("2").orElseThrow().evaluate(Map.of("income", 60000));
+
+        // Assert
+        assertTrue(result);
+        assertEquals(2, registry.list().size());
+        assertEquals("2", store.findHottest(1).get(0).id());
+        assertEquals(List.of("2", "1"), store.findHottest(5).stream().map(RegisteredRule::id).toList());
+        assertThrows(UnsupportedOperationException.class, () -> registry.register(RuleEngine.createRule("age > 40")));
+        assertThrows(UnsupportedOperationException.class, () -> registry.remove("1"));
+    }
+
+    private static int readAll(RulePack pack) {
+        for (int position = 0; position < pack.size(); position++) {
+            pack.find(pack.idAt(position));
+        }
+        return pack.size();
+    }
+
+    private static void assertReadsOrRejects(Callable<Integer> read) {
+        try {
+            read.call();
+        } catch (IllegalArgumentException e) {
+            // Expected for damaged packs
+        } catch (Exception | StackOverflowError | OutOfMemoryError e) {
+            throw new AssertionError("Damaged pack failed with " + e, e);
+        }
+    }
+
+    private static byte[] bytes(List<RegisteredRule> rules) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RulePack.write(out, rules);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ruleengine;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleParserTest {
+
+    @Test
+    void testAndBindsTighterThanOr() {
+        // Act: Parse without parentheses
+        Node rule = RuleParser.parse("age > 30 OR age < 10 AND income > 50000");
+
+        // Assert: OR at the root, AND below it on the right
+        assertEquals("OR", rule.getValue());
+        assertEquals("age > 30", rule.getLeft().getValue());
+        assertEquals("AND", rule.getRight().getValue());
+    }
+
+    @Test
+    void testParenthesesAndNot() {
+        // Arrange
+        CompiledRule rule = RuleEngine.compile(RuleParser.parse("NOT (age >= 30 OR department = 'Sales') AND income <= 50000"));
+
+        // Act & Assert
+        assertTrue(rule.evaluate(Map.of("age", 25, "department", "HR", "income", 50000)));
+        assertFalse(rule.evaluate(Map.of("age", 30, "department", "HR", "income", 50000)));
+        assertFalse(rule.evaluate(Map.of("age", 25, "department", "Sales", "income", 50000)));
+    }
+
+    @Test
+    void testInListAndNotEquals() {
+        // Arrange
+        CompiledRule rule = RuleEngine.compile(RuleParser.parse("department IN ('Sales', \"HR\", Marketing) AND level != 3"));
+
+        // Act & Assert
+        assertTrue(rule.evaluate(Map.of("department", "Marketing", "level", 2)));
+        assertFalse(rule.evaluate(Map.of("department", "Finance", "level", 2)));
+        assertFalse(rule.evaluate(Map.of("department", "HR", "level", 3)));
+    }
+
+    @Test
+    void testOperandsAreCanonical() {
+        // Act
+        Node rule = RuleParser.parse("score>=-1.5e2 and name='O\\'Brien'");
+
+        // Assert
+        assertEquals("score >= -1.5e2", rule.getLeft().getValue());
+        assertEquals("name = 'O\\'Brien'", rule.getRight().getValue());
+        assertTrue(RuleEngine.compile(rule).evaluate(Map.of("score", -150, "name", "O'Brien")));
+    }
+
+    @Test
+    void testNestingIsLimited() {
+        // Arrange: NOT and parentheses up to the limit, one level beyond it, and far beyond it
+        String allowed = "NOT ".repeat(RuleParser.MAX_NESTING / 2) + "(".repeat(RuleParser.MAX_NESTING / 2)
+                + "age > 30" + ")".repeat(RuleParser.MAX_NESTING / 2);
+        String tooDeep = "NOT ".repeat(RuleParser.MAX_NESTING + 1) + "age > 30";
+        String hostile = "(".repeat(100_000) + "age > 30" + ")".repeat(100_000);
+
+        // Act
+        CompiledRule rule = RuleEngine.compile(RuleParser.parse(allowed));
+        RuleSyntaxException nested = assertThrows(RuleSyntaxException.class, () -> RuleParser.parse(tooDeep));
+        RuleSyntaxException parenthesized = assertThrows(RuleSyntaxException.class, () -> RuleParser.parse(hostile));
+
+        // Assert: The error points at the first token beyond the limit
+        assertTrue(rule.evaluate(Map.of("age", 35)));
+        assertEquals(4 * RuleParser.MAX_NESTING, nested.getPosition());
+        assertTrue(nested.getMessage().startsWith("Rule nested deeper than " + RuleParser.MAX_NESTING + " levels"));
+        assertEquals(RuleParser.MAX_NESTING, parenthesized.getPosition());
+    }
+
+    @Test
+    void testErrorsReportPosition() {
+        // Act & Assert: Missing value after the operator
+        RuleSyntaxException missingValue = assertThrows(RuleSyntaxException.class, () -> RuleParser.parse("age > 30 AND income >"));
+        assertEquals(21, missingValue.getPosition());
+
+        // Unbalanced parenthesis
+        RuleSyntaxException unbalanced = assertThrows(RuleSyntaxException.class, () -> RuleParser.parse("(age > 30"));
+        assertEquals(9, unbalanced.getPosition());
+
+        // Dangling operator
+        RuleSyntaxException dangling = assertThrows(RuleSyntaxException.class, () -> RuleParser.parse("age > 30 OR"));
+        assertEquals(11, dangling.getPosition());
+    }
+}
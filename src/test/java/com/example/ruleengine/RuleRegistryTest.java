@@ -0,0 +1,230 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RuleRegistryTest {
+
+    private RuleRegistry ruleRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ruleRegistry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+    }
+
+    @Test
+    void testRegisteredRuleIsCompiledOnce() {
+        // Arrange: Register a rule
+        RegisteredRule registered = ruleRegistry.register(RuleEngine.createRule("age > 30"));
+
+        // Act: Fetch the compiled form twice
+        CompiledRule first = ruleRegistry.getCompiled(registered.id()).orElseThrow();
+        CompiledRule second = ruleRegistry.getCompiled(registered.id()).orElseThrow();
+
+        // Assert: The second lookup is a cache hit returning the same instance
+        assertSame(first, second);
+        assertEquals(1, ruleRegistry.cacheStats().misses());
+        assertEquals(1, ruleRegistry.cacheStats().hits());
+        assertTrue(first.evaluate(Map.of("age", 35)));
+    }
+
+    @Test
+    void testUpdateBumpsVersionAndRecompiles() {
+        // Arrange: Register and compile a rule
+        RegisteredRule registered = ruleRegistry.register(RuleEngine.createRule("age > 30"));
+        ruleRegistry.getCompiled(registered.id());
+
+        // Act: Replace it with a stricter rule
+        RegisteredRule updated = ruleRegistry.update(registered.id(), RuleEngine.createRule("age > 40")).orElseThrow();
+
+        // Assert: The new version is evaluated
+        assertEquals(2, updated.version());
+        assertFalse(ruleRegistry.getCompiled(registered.id()).orElseThrow().evaluate(Map.of("age", 35)));
+    }
+
+    @Test
+    void testMatcherIsRebuiltInTheBackground() {
+        // Arrange: Rebuilds are queued instead of run, so the test decides when they happen
+        List<Runnable> rebuilds = new ArrayList<>();
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000, rebuilds::add);
+        RegisteredRule adult = registry.register(RuleEngine.createRule("age > 30"));
+        RuleMatcher first = registry.getMatcher();
+
+        // Act: Two changes while the first matcher is in use
+        RegisteredRule senior = registry.register(RuleEngine.createRule("age > 60"));
+        registry.update(adult.id(), RuleEngine.createRule("age > 18"));
+        RuleMatcher beforeRebuild = registry.getMatcher();
+        long missesBeforeRebuild = registry.cacheStats().misses();
+        rebuilds.remove(0).run();
+        RuleMatcher afterRebuild = registry.getMatcher();
+
+        // Assert: The old matcher serves until one coalesced rebuild publishes the new one
+        assertSame(first, beforeRebuild);
+        assertEquals(List.of(adult.id()), beforeRebuild.match(Map.of("age", 70)).matches());
+        assertTrue(rebuilds.isEmpty());
+        assertEquals(List.of(adult.id(), senior.id()), afterRebuild.match(Map.of("age", 70)).matches());
+        assertEquals(List.of(adult.id()), afterRebuild.match(Map.of("age", 20)).matches());
+        assertEquals(2, registry.cacheStats().misses() - missesBeforeRebuild);
+
+        // Act: Another change only compiles the changed rule; unchanged ones come from the cache
+        registry.update(senior.id(), RuleEngine.createRule("age > 65"));
+        rebuilds.remove(0).run();
+
+        // Assert
+        assertEquals(3, registry.cacheStats().misses() - missesBeforeRebuild);
+        assertEquals(List.of(adult.id()), registry.getMatcher().match(Map.of("age", 62)).matches());
+    }
+
+    @Test
+    void testCacheEvictsLeastRecentlyUsed() {
+        // Arrange: A cache that fits only two single-node rules
+        CompiledRuleCache cache = new CompiledRuleCache(2);
+        Node rule = RuleEngine.createRule("age > 30");
+        CompiledRuleCache.Key first = new CompiledRuleCache.Key("1", 1);
+        CompiledRuleCache.Key second = new CompiledRuleCache.Key("2", 1);
+        CompiledRuleCache.Key third = new CompiledRuleCache.Key("3", 1);
+
+        // Act: Touch the first rule again before adding a third
+        cache.get(first, () -> rule);
+        cache.get(second, () -> rule);
+        cache.get(first, () -> rule);
+        cache.get(third, () -> rule);
+
+        // Assert: The second rule was evicted, the first is still cached
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+        cache.get(first, () -> rule);
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    void testRegisterRejectsInvalidRule() {
+        // Act & Assert: Invalid rules never reach the registry
+        assertThrows(IllegalArgumentException.class, () -> {
+            ruleRegistry.register(new Node("operator", "XOR", RuleEngine.createRule("age > 30"), RuleEngine.createRule("age < 50")));
+        });
+        assertTrue(ruleRegistry.list().isEmpty());
+    }
+
+    @Test
+    void testRulesAreLoadedLazilyFromTheStore() {
+        // Arrange: A rule persisted by an earlier run
+        InMemoryRuleStore store = new InMemoryRuleStore();
+        RegisteredRule stored = store.create(RuleEngine.createRule("age > 30"));
+        RuleRegistry restarted = new RuleRegistry(store, 100, 0, false, 0, 60000);
+
+        // Act & Assert: Nothing is compiled until the rule is first used
+        assertEquals(0, restarted.cacheStats().size());
+        assertTrue(restarted.getCompiled(stored.id()).orElseThrow().evaluate(Map.of("age", 35)));
+        assertEquals(1, restarted.cacheStats().size());
+    }
+
+    @Test
+    void testWarmUpCompilesHottestRules() {
+        // Arrange: Two rules, only the second one is evaluated
+        InMemoryRuleStore store = new InMemoryRuleStore();
+        RuleRegistry registry = new RuleRegistry(store, 100, 0, false, 0, 60000);
+        registry.register(RuleEngine.createRule("age > 30"));
+        RegisteredRule hot = registry.register(RuleEngine.createRule("age > 40"));
+        registry.getCompiled(hot.id());
+        registry.getCompiled(hot.id());
+        registry.flushEvaluationCounts();
+
+        // Act: A fresh registry over the same store warms one rule
+        RuleRegistry restarted = new RuleRegistry(store, 100, 0, false, 0, 60000);
+        int warmed = restarted.warmUp(1);
+
+        // Assert: The hot rule is served from the cache straight away
+        assertEquals(1, warmed);
+        restarted.getCompiled(hot.id());
+        assertEquals(1, restarted.cacheStats().hits());
+    }
+
+    @Test
+    void testRepeatedEvaluationsAreServedFromResultCache() {
+        // Arrange: A registry with result memoization enabled
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 10, 60000);
+        RegisteredRule registered = registry.register(RuleEngine.createRule("age > 30 AND department = 'Sales'"));
+
+        // Act: The second record differs only in a field the rule does not read
+        CompiledRule rule = registry.getMemoized(registered.id()).orElseThrow();
+        boolean first = rule.evaluate(Map.of("age", 35, "department", "Sales", "name", "Ann"));
+        boolean second = rule.evaluate(Map.of("age", 35, "department", "Sales", "name", "Bob"));
+        boolean third = rule.evaluate(Map.of("age", 25, "department", "Sales"));
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1, registry.resultStats().hits());
+        assertEquals(2, registry.resultStats().misses());
+    }
+
+    @Test
+    void testUpdateInvalidatesCachedResults() {
+        // Arrange
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 10, 60000);
+        RegisteredRule registered = registry.register(RuleEngine.createRule("age > 30"));
+        assertTrue(registry.getMemoized(registered.id()).orElseThrow().evaluate(Map.of("age", 35)));
+
+        // Act
+        registry.update(registered.id(), RuleEngine.createRule("age > 40"));
+
+        // Assert: The new version is evaluated, not answered from the old entry
+        assertEquals(0, registry.resultStats().size());
+        assertFalse(registry.getMemoized(registered.id()).orElseThrow().evaluate(Map.of("age", 35)));
+        assertEquals(0, registry.resultStats().hits());
+    }
+
+    @Test
+    void testResultCacheExpiresAndEvictsEntries() {
+        // Arrange: A two-entry cache with a one millisecond TTL on a manual clock
+        AtomicLong now = new AtomicLong();
+        ResultCache results = new ResultCache(2, 1, now::get);
+        CompiledRuleCache.Key key = new CompiledRuleCache.Key("1", 1);
+        CompiledRule rule = RuleEngine.compile(RuleEngine.createRule("age > 30"));
+
+        // Act & Assert: An entry is served until it expires
+        results.evaluate(key, rule, Map.of("age", 35));
+        results.evaluate(key, rule, Map.of("age", 35));
+        assertEquals(1, results.stats().hits());
+        now.addAndGet(1_000_000);
+        results.evaluate(key, rule, Map.of("age", 35));
+        assertEquals(1, results.stats().hits());
+
+        // Act & Assert: The oldest entry makes room for new ones
+        results.evaluate(key, rule, Map.of("age", 36));
+        results.evaluate(key, rule, Map.of("age", 37));
+        assertEquals(2, results.stats().size());
+        assertEquals(1, results.stats().evictions());
+    }
+
+    @Test
+    void testMutableValuesAreNotCached() {
+        // Arrange
+        ResultCache results = new ResultCache(10, 60000);
+        CompiledRuleCache.Key key = new CompiledRuleCache.Key("1", 1);
+        CompiledRule rule = RuleEngine.compile(RuleEngine.createRule("age > 30"));
+        AtomicLong age = new AtomicLong(35);
+        List<Boolean> outcomes = new ArrayList<>();
+
+        // Act: The same mutable value changes between evaluations
+        outcomes.add(results.evaluate(key, rule, Map.of("age", age)));
+        age.set(25);
+        outcomes.add(results.evaluate(key, rule, Map.of("age", age)));
+
+        // Assert
+        assertEquals(List.of(true, false), outcomes);
+        assertEquals(0, results.stats().size());
+    }
+}
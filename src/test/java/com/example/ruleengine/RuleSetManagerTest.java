@@ -0,0 +1,125 @@
+package com.example.ruleengine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RuleSetManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReloadFromFile() throws IOException {
+        // Arrange: the single-rule format of rules.json, then a list with ids
+        Path file = directory.resolve("rules.json");
+        Files.writeString(file, "{\"rules\": {\"operator\": \"AND\", \"left\": {\"operand\": \"age > 30\"},"
+                + " \"right\": {\"operand\": \"income > 50000\"}}}");
+        RuleSetManager manager = manager(file.toUri().toString());
+
+        // Act
+        RuleSet single = manager.reloadFromFile();
+        Files.writeString(file, "[{\"id\": \"senior\", \"rule\": \"age > 60\"}, {\"id\": \"sales\", \"rule\": \"department = 'Sales'\"}]");
+        RuleSet list = manager.reloadFromFile();
+
+        // Assert
+        assertEquals(1, single.getVersion());
+        assertTrue(single.getCompiled("1").orElseThrow().evaluate(Map.of("age", 35, "income", 60000)));
+        assertEquals(2, list.getVersion());
+        assertEquals(2, list.info().rules());
+        assertEquals(List.of("sales"), list.getMatcher().match(Map.of("age", 35, "department", "Sales")).matches());
+        assertSame(list, manager.current());
+    }
+
+    @Test
+    void testInvalidRuleSetKeepsCurrentSnapshot() {
+        // Arrange
+        RuleRegistry registry = new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000);
+        registry.register(RuleEngine.createRule("age > 30"));
+        RuleSetManager manager = new RuleSetManager(registry, new ObjectMapper(), "classpath:rules.json");
+        RuleSet loaded = manager.reloadFromStore();
+
+        // Act
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> manager.publish("test",
+                List.of(new RegisteredRule("a", 1, RuleEngine.createRule("age > 40")),
+                        new RegisteredRule("a", 1, RuleEngine.createRule("age > 50")))));
+
+        // Assert
+        assertEquals("Duplicate rule id: a", error.getMessage());
+        assertSame(loaded, manager.current());
+        assertTrue(manager.current().getCompiled("1").orElseThrow().evaluate(Map.of("age", 35)));
+    }
+
+    @Test
+    void testEvaluationsDuringReloadsSeeWholeSnapshots() throws Exception {
+        // Arrange: every rule of version v tests "generation = v", so a mixed set would not match everything
+        int ruleCount = 2000;
+        RuleSetManager manager = manager("classpath:rules.json");
+        manager.publish("test", generation(1, ruleCount));
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int reader = 0; reader < 4; reader++) {
+                results.add(readers.submit(() -> {
+                    int count = 0;
+                    while (reloading.get()) {
+                        RuleSet ruleSet = manager.current();
+                        Map<String, Object> data = Map.of("generation", (int) ruleSet.getVersion());
+                        boolean result = ruleSet.getCompiled(String.valueOf(count % ruleCount)).orElseThrow().evaluate(data);
+                        count++;
+                        if (!result || (count % 1000 == 0 && ruleSet.getMatcher().match(data).matches().size() != ruleCount)) {
+                            throw new AssertionError("Reader saw a partly updated rule set " + ruleSet.getVersion());
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // Act
+            for (int version = 2; version <= 20; version++) {
+                manager.publish("test", generation(version, ruleCount));
+            }
+        } finally {
+            reloading.set(false);
+            readers.shutdown();
+        }
+
+        // Assert: every reader ran and only ever saw whole snapshots
+        for (Future<?> result : results) {
+            result.get();
+        }
+        assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20, manager.current().getVersion());
+    }
+
+    private static List<RegisteredRule> generation(int version, int ruleCount) {
+        List<RegisteredRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new RegisteredRule(String.valueOf(i), version,
+                    RuleEngine.createRule("generation = " + version + " AND generation > " + (i % 50 - 100))));
+        }
+        return rules;
+    }
+
+    private static RuleSetManager manager(String location) {
+        return new RuleSetManager(new RuleRegistry(new InMemoryRuleStore(), 100, 0, false, 0, 60000), new ObjectMapper(), location);
+    }
+}
@@ -2,8 +2,11 @@ package com.example.ruleengine;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
+// Runs against an in-memory database (application-test.properties), so no files are left in ./data
 @SpringBootTest
+@ActiveProfiles("test")
 class RuleengineApplicationTests {
 
 	@Test
@@ -0,0 +1,185 @@
+package com.example.ruleengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TieredRuleTest {
+
+    private static final String[] OPERANDS = { "age > 30", "age < 30", "age = 30", "age >= 45", "age <= 45",
+            "age != 30", "income > 50000", "income = 50000", "income != 50000", "department = 'Sales'",
+            "department != 'HR'", "department = 30", "department > 10", "age = 'Sales'", "score < 0.5",
+            "score >= 0.5", "name > 'Bob'" };
+
+    @Test
+    void testGeneratedRulesAgreeWithInterpreter() {
+        // Arrange: Random n-ary trees, including operands that fail on type mismatches or missing fields
+        Random random = new Random(7);
+        List<CompiledRule> rules = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rules.add(randomRule(random, 4));
+        }
+
+        for (CompiledRule rule : rules) {
+            CompiledRule generated = MethodHandleCompiler.generate(rule);
+            for (int n = 0; n < 50; n++) {
+                Map<String, Object> data = randomRecord(random);
+
+                // Act
+                String expected = outcome(rule, data);
+                String actual = outcome(generated, data);
+
+                // Assert: Same result, or the same exception with the same message
+                assertEquals(expected, actual, "Rule " + rule + " on " + data);
+            }
+        }
+    }
+
+    @Test
+    void testGeneratedRulesHaveConstantHandles() {
+        // Arrange
+        CompiledRule first = RuleEngine.compile(RuleEngine.createRule("age > 30"));
+        CompiledRule second = RuleEngine.compile(RuleEngine.createRule("age > 40"));
+
+        // Act
+        MethodHandleCompiler.GeneratedRule generatedFirst = MethodHandleCompiler.generate(first);
+        MethodHandleCompiler.GeneratedRule generatedSecond = MethodHandleCompiler.generate(second);
+
+        // Assert: Each rule has a hidden class of its own, whose handle is a static final constant
+        assertTrue(generatedFirst.getClass().isHidden());
+        assertNotSame(generatedFirst.getClass(), generatedSecond.getClass());
+        assertSame(first, generatedFirst.source());
+        assertTrue(generatedFirst.evaluate(Map.of("age", 35)));
+        assertFalse(generatedSecond.evaluate(Map.of("age", 35)));
+    }
+
+    @Test
+    void testDeepRulesFallBackToInterpreterBelowDepthLimit() {
+        // Arrange: A left-deep chain far beyond the combinator depth limit
+        Node node = RuleEngine.createRule("age > 0");
+        for (int i = 1; i <= 3 * MethodHandleCompiler.MAX_DEPTH; i++) {
+            node = RuleEngine.combineRules(node, RuleEngine.createRule("age > " + i), "AND");
+        }
+        CompiledRule rule = RuleEngine.compile(node);
+
+        // Act
+        CompiledRule generated = MethodHandleCompiler.generate(rule);
+
+        // Assert
+        assertTrue(generated.evaluate(Map.of("age", 1000)));
+        assertFalse(generated.evaluate(Map.of("age", 100)));
+    }
+
+    @Test
+    void testRuleIsPromotedAfterThreshold() {
+        // Arrange: Promotion runs on the calling thread so the swap is visible immediately
+        CompiledRule interpreted = RuleEngine.compile(RuleEngine.createRule("age > 30 AND department = 'Sales'"));
+        TieredRule rule = new TieredRule(interpreted, 3, Runnable::run);
+        Map<String, Object> data = Map.of("age", 35, "department", "Sales");
+
+        // Act
+        rule.evaluate(data);
+        rule.evaluate(data);
+        boolean promotedEarly = rule.isPromoted();
+        boolean result = rule.evaluate(data);
+
+        // Assert
+        assertFalse(promotedEarly);
+        assertTrue(rule.isPromoted());
+        assertTrue(result);
+        assertTrue(rule.evaluate(data));
+        assertSame(interpreted, rule.getInterpreted());
+    }
+
+    @Test
+    void testTracingUsesInterpretedTree() {
+        // Arrange
+        TieredRule rule = new TieredRule(RuleEngine.compile(RuleEngine.createRule("age > 30 OR income > 50000")),
+                1, Runnable::run);
+        List<String> operands = new ArrayList<>();
+        rule.evaluate(Map.of("age", 20, "income", 60000));
+
+        // Act
+        boolean result = rule.evaluate(Map.of("age", 20, "income", 60000),
+                (operand, outcome) -> operands.add(operand + "=" + outcome));
+
+        // Assert
+        assertTrue(rule.isPromoted());
+        assertTrue(result);
+        assertEquals(List.of("age > 30=false", "income > 50000=true"), operands);
+    }
+
+    @Test
+    void testThresholdZeroStaysInterpreted() {
+        // Arrange
+        TieredRule rule = new TieredRule(RuleEngine.compile(RuleEngine.createRule("age > 30")), 0, Runnable::run);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            rule.evaluate(Map.of("age", i));
+        }
+
+        // Assert
+        assertFalse(rule.isPromoted());
+        assertTrue(rule.getInterpreted() instanceof CompiledRule.Comparison);
+    }
+
+    private static CompiledRule randomRule(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return RuleEngine.compile(RuleEngine.createRule(OPERANDS[random.nextInt(OPERANDS.length)]));
+        }
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                return new CompiledRule.Not(randomRule(random, depth - 1));
+            }
+            case 1 -> {
+                return new CompiledRule.And(children(random, depth));
+            }
+            default -> {
+                return new CompiledRule.Or(children(random, depth));
+            }
+        }
+    }
+
+    private static CompiledRule[] children(Random random, int depth) {
+        CompiledRule[] children = new CompiledRule[1 + random.nextInt(4)];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = randomRule(random, depth - 1);
+        }
+        return children;
+    }
+
+    private static Map<String, Object> randomRecord(Random random) {
+        Map<String, Object> data = new HashMap<>();
+        if (random.nextInt(10) > 0) {
+            data.put("age", random.nextInt(5) == 0 ? "thirty" : 20 + random.nextInt(40));
+        }
+        data.put("income", random.nextBoolean() ? 50000 : random.nextInt(100000));
+        data.put("department", random.nextInt(5) == 0 ? 30 : random.nextBoolean() ? "Sales" : "HR");
+        if (random.nextBoolean()) {
+            data.put("score", random.nextDouble());
+        }
+        if (random.nextBoolean()) {
+            data.put("name", "Alice");
+        }
+        return data;
+    }
+
+    // Time for 500 passes over the records; the match count is checked so the work cannot be skipped
+    private static String outcome(CompiledRule rule, Map<String, Object> data) {
+        try {
+            return String.valueOf(rule.evaluate(data));
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
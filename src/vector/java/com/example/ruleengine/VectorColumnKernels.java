@@ -0,0 +1,47 @@
+package com.example.ruleengine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// VectorColumnKernels.java
+// SIMD column kernels on the incubating Vector API. Only compiled with the "vector" profile and
+// only loaded by ColumnKernels when jdk.incubator.vector is present at runtime. Lane counts of the
+// preferred species divide 64, so every word is covered by whole vectors.
+final class VectorColumnKernels implements ColumnKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public long compare(double[] values, int from, ComparisonOperator operator, double threshold) {
+        VectorOperators.Comparison comparison = switch (operator) {
+            case EQ -> VectorOperators.EQ;
+            case NE -> VectorOperators.NE;
+            case GT -> VectorOperators.GT;
+            case GE -> VectorOperators.GE;
+            case LT -> VectorOperators.LT;
+            case LE -> VectorOperators.LE;
+        };
+        long bits = 0;
+        for (int i = 0; i < 64; i += DOUBLES.length()) {
+            bits |= DoubleVector.fromArray(DOUBLES, values, from + i).compare(comparison, threshold).toLong() << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public long kindMask(byte[] kinds, int from, byte kind) {
+        long bits = 0;
+        for (int i = 0; i < 64; i += BYTES.length()) {
+            bits |= ByteVector.fromArray(BYTES, kinds, from + i).eq(kind).toLong() << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return "vector kernels (" + DOUBLES.length() + " doubles, " + BYTES.length() + " bytes per vector)";
+    }
+}